@@ -12,7 +12,9 @@ import org.apache.commons.math3.stat.descriptive.DescriptiveStatistics;
 
 import parisolve.backend.Arena;
 import parisolve.backend.algorithms.BigStepAlgorithm;
+import parisolve.backend.algorithms.DiscreteStrategyImprovementAlgorithm;
 import parisolve.backend.algorithms.MemoizedRecursiveAlgorithm;
+import parisolve.backend.algorithms.ParallelRecursiveAlgorithm;
 import parisolve.backend.algorithms.RecursiveAlgorithm;
 import parisolve.backend.algorithms.SmallMeasureAlgorithm;
 import parisolve.backend.algorithms.Solver;
@@ -57,7 +59,9 @@ public final class BenchmarkingManager {
         return new ImmutableList.Builder<Class<? extends Solver>>()
                 .add(MemoizedRecursiveAlgorithm.class)
                 .add(RecursiveAlgorithm.class).add(SmallMeasureAlgorithm.class)
-                .add(BigStepAlgorithm.class).build();
+                .add(BigStepAlgorithm.class)
+                .add(ParallelRecursiveAlgorithm.class)
+                .add(DiscreteStrategyImprovementAlgorithm.class).build();
     }
 
     /**
@@ -243,8 +247,13 @@ public final class BenchmarkingManager {
 
         List<Set<Optimization>> optimizationCombis = new ArrayList<>();
         optimizationCombis.add(Collections.emptySet());
-        // TODO: Add SCC
+        optimizationCombis.add(Sets.newHashSet(Optimization.SCC_DECOMPOSITION));
         optimizationCombis.add(Sets.newHashSet(Optimization.SELFCYCLE_REMOVAL));
+        optimizationCombis.add(Sets
+                .newHashSet(Optimization.PRIORITY_COMPRESSION));
+        optimizationCombis.add(Sets.newHashSet(
+                Optimization.PRIORITY_PROPAGATION,
+                Optimization.PRIORITY_COMPRESSION));
         optimizationCombis.add(Sets.newHashSet(Optimization.values()));
 
         printArenaDescriptions(arenaFiles);
@@ -358,8 +367,10 @@ public final class BenchmarkingManager {
                 if (optimizations.isEmpty()) {
                     time = solver.solveAndTime(arena).getTime();
                 } else {
+                    // a fresh solver per component lets SCC_DECOMPOSITION
+                    // solve the components in parallel
                     GraphPreprocessor preprocessor = new GraphPreprocessor(
-                            solver);
+                            () -> createSolver(solverClass));
                     for (final Optimization optimization : optimizations) {
                         preprocessor.addOptimization(optimization);
                     }
@@ -375,4 +386,19 @@ public final class BenchmarkingManager {
         }
         return statistics;
     }
+
+    /**
+     * @return a new instance of <code>solverClass</code>
+     * @throws IllegalStateException
+     *             if it cannot be instantiated
+     */
+    private static Solver createSolver(
+            final Class<? extends Solver> solverClass) {
+        try {
+            return solverClass.newInstance();
+        } catch (IllegalAccessException | InstantiationException e) {
+            throw new IllegalStateException("Solver could not be instatiated.",
+                    e);
+        }
+    }
 }
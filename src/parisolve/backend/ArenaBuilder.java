@@ -0,0 +1,31 @@
+package parisolve.backend;
+
+/**
+ * abstracts something an arena can be assembled with by adding vertices and
+ * edges one at a time, identifying the vertices by their names. This allows
+ * the loaders in <code>ArenaManager</code> to fill different implementations
+ * of <code>Arena</code>.
+ */
+public interface ArenaBuilder {
+    /**
+     * adds a vertex with the properties given.
+     *
+     * @param name
+     *            the name, the vertex can be referred to by
+     * @param priority
+     *            the vertex' priority
+     * @param player
+     *            the player whose turn it is to move from this vertex
+     */
+    void addVertex(final String name, final int priority, final Player player);
+
+    /**
+     * adds an edge between two vertices which have been added before.
+     *
+     * @param from
+     *            name of the vertex the edge starts in
+     * @param to
+     *            name of the vertex the edge points to
+     */
+    void addEdge(final String from, final String to);
+}
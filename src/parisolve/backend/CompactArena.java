@@ -0,0 +1,524 @@
+package parisolve.backend;
+
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import parisolve.io.ArenaManager;
+
+/**
+ * implementation of an arena which stores its vertices as dense integer ids
+ * from <code>0</code> to <code>size() - 1</code> rather than as objects. The
+ * priorities are kept in an <code>int[]</code>, the owners in a bit set and
+ * the edges in compressed sparse row format: the successors of vertex
+ * <code>v</code> are the entries of <code>getSuccessorTargets()</code> from
+ * index <code>getSuccessorOffsets()[v]</code> (inclusive) to
+ * <code>getSuccessorOffsets()[v + 1]</code> (exclusive), sorted ascendingly.
+ * The predecessors are stored in the same way. This amounts to two
+ * <code>int</code>s per edge.
+ *
+ * Algorithms working on ids can access these arrays directly. For all other
+ * algorithms the vertices are handed out as light-weight
+ * <code>ParityVertex</code>-views, which are created on demand and are equal
+ * iff they refer to the same id in the same arena.
+ *
+ * Instances are assembled with a <code>CompactArena.Builder</code> or
+ * converted from existing vertices with <code>fromVertices()</code>. Once
+ * built, a <code>CompactArena</code> cannot be modified.
+ */
+public class CompactArena extends AbstractCollection<ParityVertex> implements
+        Arena {
+    /**
+     * view on a single vertex of a <code>CompactArena</code>.
+     */
+    public static final class CompactParityVertex implements ParityVertex {
+        private final CompactArena arena;
+        private final int id;
+
+        private CompactParityVertex(final CompactArena arena, final int id) {
+            this.arena = arena;
+            this.id = id;
+        }
+
+        /**
+         * @return the id of this vertex in its arena
+         */
+        public int getId() {
+            return id;
+        }
+
+        @Override
+        public String getName() {
+            return arena.getName(id);
+        }
+
+        @Override
+        public int getPriority() {
+            return arena.getPriority(id);
+        }
+
+        @Override
+        public Player getPlayer() {
+            return arena.getPlayer(id);
+        }
+
+        @Override
+        public Set<ParityVertex> getSuccessors() {
+            return new SuccessorSet(arena, arena.successorOffsets[id],
+                    arena.successorOffsets[id + 1]);
+        }
+
+        @Override
+        public ParityVertex getSuccessorFromSet(
+                final Set<ParityVertex> verticesToConsider) {
+            for (int index = arena.successorOffsets[id]; index < arena.successorOffsets[id + 1]; index++) {
+                final ParityVertex successor = arena
+                        .getVertex(arena.successorTargets[index]);
+                if (verticesToConsider.contains(successor)) {
+                    return successor;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (!(obj instanceof CompactParityVertex)) {
+                return false;
+            }
+            final CompactParityVertex other = (CompactParityVertex) obj;
+            return other.arena == arena && other.id == id;
+        }
+
+        @Override
+        public int hashCode() {
+            return id;
+        }
+
+        @Override
+        public String toString() {
+            return getName() + ": [player=" + getPlayer() + ",label=\""
+                    + getPriority() + "\"]";
+        }
+    }
+
+    /**
+     * read-only view on a slice of the successor array, which answers
+     * <code>contains()</code> by binary search.
+     */
+    private static final class SuccessorSet extends AbstractSet<ParityVertex> {
+        private final CompactArena arena;
+        private final int from;
+        private final int to;
+
+        SuccessorSet(final CompactArena arena, final int from, final int to) {
+            this.arena = arena;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public Iterator<ParityVertex> iterator() {
+            return new Iterator<ParityVertex>() {
+                private int index = from;
+
+                @Override
+                public boolean hasNext() {
+                    return index < to;
+                }
+
+                @Override
+                public ParityVertex next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return arena.getVertex(arena.successorTargets[index++]);
+                }
+            };
+        }
+
+        @Override
+        public boolean contains(final Object obj) {
+            return arena.contains(obj)
+                    && Arrays.binarySearch(arena.successorTargets, from, to,
+                            ((CompactParityVertex) obj).id) >= 0;
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+    }
+
+    /**
+     * assembles a <code>CompactArena</code>. Vertices are numbered in the
+     * order they are added. Edges are collected in two flat arrays and only
+     * sorted into the compressed layout when <code>build()</code> is called.
+     */
+    public static class Builder implements ArenaBuilder {
+        private final Map<String, Integer> idsByName = new HashMap<>();
+        private String[] names = new String[16];
+        private int[] priorities = new int[16];
+        private final BitSet ownedByB = new BitSet();
+        private int numberOfVertices = 0;
+        private int[] edgeSources = new int[16];
+        private int[] edgeTargets = new int[16];
+        private int numberOfEdges = 0;
+
+        @Override
+        public final void addVertex(final String name, final int priority,
+                final Player player) {
+            final Integer existingId = idsByName.get(name);
+            if (existingId == null) {
+                idsByName.put(name,
+                        addVertexWithoutName(name, priority, player));
+            } else {
+                priorities[existingId] = priority;
+                ownedByB.set(existingId, player == Player.B);
+            }
+        }
+
+        private int addVertexWithoutName(final String name,
+                final int priority, final Player player) {
+            if (numberOfVertices == priorities.length) {
+                names = Arrays.copyOf(names, 2 * numberOfVertices);
+                priorities = Arrays.copyOf(priorities, 2 * numberOfVertices);
+            }
+            names[numberOfVertices] = name;
+            priorities[numberOfVertices] = priority;
+            ownedByB.set(numberOfVertices, player == Player.B);
+            return numberOfVertices++;
+        }
+
+        @Override
+        public final void addEdge(final String from, final String to) {
+            addEdge(getId(from), getId(to));
+        }
+
+        private int getId(final String name) {
+            final Integer id = idsByName.get(name);
+            if (id == null) {
+                throw new IllegalArgumentException("Vertex " + name
+                        + " has not been added.");
+            }
+            return id;
+        }
+
+        private void addEdge(final int from, final int to) {
+            if (numberOfEdges == edgeSources.length) {
+                edgeSources = Arrays.copyOf(edgeSources, 2 * numberOfEdges);
+                edgeTargets = Arrays.copyOf(edgeTargets, 2 * numberOfEdges);
+            }
+            edgeSources[numberOfEdges] = from;
+            edgeTargets[numberOfEdges] = to;
+            numberOfEdges++;
+        }
+
+        /**
+         * @return the arena consisting of the vertices and edges added so far
+         */
+        public final CompactArena build() {
+            return new CompactArena(Arrays.copyOf(names, numberOfVertices),
+                    Arrays.copyOf(priorities, numberOfVertices),
+                    (BitSet) ownedByB.clone(), edgeSources, edgeTargets,
+                    numberOfEdges);
+        }
+    }
+
+    private final String[] names;
+    private final int[] priorities;
+    /**
+     * bit <code>v</code> is set iff vertex <code>v</code> belongs to player B.
+     */
+    private final BitSet ownedByB;
+    private final int[] successorOffsets;
+    private final int[] successorTargets;
+    private final int[] predecessorOffsets;
+    private final int[] predecessorTargets;
+    /**
+     * only built when a vertex is looked up by its name for the first time.
+     */
+    private Map<String, Integer> idsByName;
+
+    private CompactArena(final String[] names, final int[] priorities,
+            final BitSet ownedByB, final int[] edgeSources,
+            final int[] edgeTargets, final int numberOfEdges) {
+        this.names = names;
+        this.priorities = priorities;
+        this.ownedByB = ownedByB;
+        final int numberOfVertices = priorities.length;
+
+        // sort the edges by their source (counting sort) ...
+        final int[] offsets = new int[numberOfVertices + 1];
+        for (int edge = 0; edge < numberOfEdges; edge++) {
+            offsets[edgeSources[edge] + 1]++;
+        }
+        for (int vertex = 0; vertex < numberOfVertices; vertex++) {
+            offsets[vertex + 1] += offsets[vertex];
+        }
+        final int[] targets = new int[numberOfEdges];
+        final int[] fill = Arrays.copyOf(offsets, numberOfVertices);
+        for (int edge = 0; edge < numberOfEdges; edge++) {
+            targets[fill[edgeSources[edge]]++] = edgeTargets[edge];
+        }
+        // ... and by their target, dropping duplicates on the way, as an
+        // arena does not have parallel edges
+        successorOffsets = new int[numberOfVertices + 1];
+        int numberOfDistinctEdges = 0;
+        for (int vertex = 0; vertex < numberOfVertices; vertex++) {
+            Arrays.sort(targets, offsets[vertex], offsets[vertex + 1]);
+            final int rowStart = numberOfDistinctEdges;
+            for (int index = offsets[vertex]; index < offsets[vertex + 1]; index++) {
+                if (numberOfDistinctEdges == rowStart
+                        || targets[index] != targets[numberOfDistinctEdges - 1]) {
+                    targets[numberOfDistinctEdges++] = targets[index];
+                }
+            }
+            successorOffsets[vertex + 1] = numberOfDistinctEdges;
+        }
+        successorTargets = Arrays.copyOf(targets, numberOfDistinctEdges);
+
+        // iterating the sources in ascending order keeps the predecessors
+        // sorted as well
+        predecessorOffsets = new int[numberOfVertices + 1];
+        for (final int target : successorTargets) {
+            predecessorOffsets[target + 1]++;
+        }
+        for (int vertex = 0; vertex < numberOfVertices; vertex++) {
+            predecessorOffsets[vertex + 1] += predecessorOffsets[vertex];
+        }
+        predecessorTargets = new int[numberOfDistinctEdges];
+        final int[] predecessorFill = Arrays.copyOf(predecessorOffsets,
+                numberOfVertices);
+        for (int vertex = 0; vertex < numberOfVertices; vertex++) {
+            for (int index = successorOffsets[vertex]; index < successorOffsets[vertex + 1]; index++) {
+                predecessorTargets[predecessorFill[successorTargets[index]]++] = vertex;
+            }
+        }
+    }
+
+    /**
+     * converts the vertices given into a <code>CompactArena</code>. The id of
+     * each vertex is its index in <code>vertices</code>, so the list can be
+     * used to map results on ids back to the original vertices. Edges to
+     * vertices not contained in <code>vertices</code> are dropped.
+     *
+     * @param vertices
+     *            the vertices to convert
+     * @return an arena with the same structure as the vertices given
+     */
+    public static CompactArena fromVertices(
+            final List<? extends ParityVertex> vertices) {
+        final Builder builder = new Builder();
+        final Map<ParityVertex, Integer> ids = new HashMap<>();
+        for (final ParityVertex vertex : vertices) {
+            ids.put(vertex, builder.addVertexWithoutName(vertex.getName(),
+                    vertex.getPriority(), vertex.getPlayer()));
+        }
+        for (int id = 0; id < vertices.size(); id++) {
+            for (final ParityVertex successor : vertices.get(id)
+                    .getSuccessors()) {
+                final Integer successorId = ids.get(successor);
+                if (successorId != null) {
+                    builder.addEdge(id, successorId);
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    public final String getName(final int vertex) {
+        return names[vertex];
+    }
+
+    public final int getPriority(final int vertex) {
+        return priorities[vertex];
+    }
+
+    public final Player getPlayer(final int vertex) {
+        return ownedByB.get(vertex) ? Player.B : Player.A;
+    }
+
+    /**
+     * the offsets of each vertex' successors in
+     * <code>getSuccessorTargets()</code>. The array returned is the internal
+     * one and must not be modified.
+     *
+     * @return array of length <code>size() + 1</code>
+     */
+    public final int[] getSuccessorOffsets() {
+        return successorOffsets;
+    }
+
+    /**
+     * the successors of all vertices. The array returned is the internal one
+     * and must not be modified.
+     *
+     * @return array with one entry per edge
+     */
+    public final int[] getSuccessorTargets() {
+        return successorTargets;
+    }
+
+    /**
+     * the offsets of each vertex' predecessors in
+     * <code>getPredecessorTargets()</code>. The array returned is the internal
+     * one and must not be modified.
+     *
+     * @return array of length <code>size() + 1</code>
+     */
+    public final int[] getPredecessorOffsets() {
+        return predecessorOffsets;
+    }
+
+    /**
+     * the predecessors of all vertices. The array returned is the internal
+     * one and must not be modified.
+     *
+     * @return array with one entry per edge
+     */
+    public final int[] getPredecessorTargets() {
+        return predecessorTargets;
+    }
+
+    /**
+     * @return the number of edges in this arena
+     */
+    public final int getNumberOfEdges() {
+        return successorTargets.length;
+    }
+
+    /**
+     * returns the vertex with the given <code>id</code>.
+     *
+     * @param id
+     *            the id of the vertex, between <code>0</code> and
+     *            <code>size() - 1</code>
+     * @return a view on that vertex
+     */
+    public final ParityVertex getVertex(final int id) {
+        return new CompactParityVertex(this, id);
+    }
+
+    /**
+     * returns the vertex with the given <code>name</code>.
+     *
+     * @param name
+     *            the name of the vertex
+     * @return a view on that vertex or <code>null</code> if there is none
+     */
+    public final ParityVertex getVertex(final String name) {
+        if (idsByName == null) {
+            final Map<String, Integer> map = new HashMap<>();
+            for (int id = 0; id < names.length; id++) {
+                map.put(names[id], id);
+            }
+            idsByName = map;
+        }
+        final Integer id = idsByName.get(name);
+        return id == null ? null : getVertex(id);
+    }
+
+    /**
+     * returns the id of a vertex of this arena.
+     *
+     * @param vertex
+     *            a vertex, handed out by this arena
+     * @return the vertex' id
+     */
+    public final int getId(final ParityVertex vertex) {
+        if (!contains(vertex)) {
+            throw new IllegalArgumentException(vertex
+                    + " is not a vertex of this arena.");
+        }
+        return ((CompactParityVertex) vertex).id;
+    }
+
+    @Override
+    public final Set<ParityVertex> getVertices() {
+        final Set<ParityVertex> vertices = new HashSet<>(
+                Math.max(2 * size(), 16));
+        vertices.addAll(this);
+        return vertices;
+    }
+
+    @Override
+    public final int getMaxPriority() {
+        int maxPriority = Integer.MIN_VALUE;
+        for (final int priority : priorities) {
+            maxPriority = Math.max(maxPriority, priority);
+        }
+        return maxPriority;
+    }
+
+    @Override
+    public final String getStatistics() {
+        final boolean solitaire = ArenaManager.isSolitaire(this);
+        final boolean weak = ArenaManager.isWeak(this);
+
+        return getStatistics("Number of vertices:\t%d\n"
+                + "Number of edges\t%d\n" + "Average degree\t%f\n"
+                + "Maximal degree\t%d\n" + "Maximal priority\t%d\n"
+                + "Number of selfloops\t%d")
+                + "\n\n"
+                + (solitaire ? "" : "not ")
+                + "solitaire\n"
+                + (weak ? "" : "not ") + "weak";
+    }
+
+    @Override
+    public final String getStatistics(final String formatString) {
+        int maxDegree = 0;
+        int numberOfSelfloops = 0;
+        for (int vertex = 0; vertex < size(); vertex++) {
+            final int from = successorOffsets[vertex];
+            final int to = successorOffsets[vertex + 1];
+            maxDegree = Math.max(maxDegree, to - from);
+            if (Arrays.binarySearch(successorTargets, from, to, vertex) >= 0) {
+                numberOfSelfloops++;
+            }
+        }
+        return String.format(formatString, size(), getNumberOfEdges(),
+                ((double) getNumberOfEdges()) / size(), maxDegree,
+                getMaxPriority(), numberOfSelfloops);
+    }
+
+    @Override
+    public final boolean contains(final Object obj) {
+        return obj instanceof CompactParityVertex
+                && ((CompactParityVertex) obj).arena == this;
+    }
+
+    @Override
+    public final Iterator<ParityVertex> iterator() {
+        return new Iterator<ParityVertex>() {
+            private int id = 0;
+
+            @Override
+            public boolean hasNext() {
+                return id < size();
+            }
+
+            @Override
+            public ParityVertex next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return getVertex(id++);
+            }
+        };
+    }
+
+    @Override
+    public final int size() {
+        return priorities.length;
+    }
+}
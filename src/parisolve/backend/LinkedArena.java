@@ -10,7 +10,7 @@ import java.util.Set;
 import parisolve.io.ArenaManager;
 
 public class LinkedArena extends AbstractCollection<ParityVertex> implements
-        Arena {
+        Arena, ArenaBuilder {
     public static class LinkedParityVertex implements ParityVertex {
         private final int priority;
         private final Player player;
@@ -70,11 +70,13 @@ public class LinkedArena extends AbstractCollection<ParityVertex> implements
 
     private final Map<String, LinkedParityVertex> vertices = new HashMap<>();
 
+    @Override
     public final void addVertex(final String name, final int priority,
             final Player player) {
         vertices.put(name, new LinkedParityVertex(name, priority, player));
     }
 
+    @Override
     public final void addEdge(final String from, final String to) {
         vertices.get(from).addSuccessor(vertices.get(to));
     }
@@ -3,6 +3,8 @@ package parisolve.backend.algorithms;
 import java.util.Arrays;
 import java.util.List;
 
+import parisolve.backend.algorithms.DiscreteStrategyImprovementAlgorithm.SwitchingRule;
+
 /**
  * central class to get instances of parity-solving algorithms from.
  * 
@@ -24,7 +26,25 @@ public final class AlgorithmManager {
                 new MemoizedRecursiveAlgorithm(),
                 new AttractiveSmallMeasureAlgorithm(),
                 new MediumSizedStepAlgorithm(), new BigStepAlgorithm(),
-                new StrategyImprovementAlgorithm());
+                new StrategyImprovementAlgorithm(),
+                new IndexedRecursiveAlgorithm(),
+                new IterativeRecursiveAlgorithm(),
+                new ParallelRecursiveAlgorithm(),
+                new ParallelSmallMeasureAlgorithm(),
+                new PriorityPromotionAlgorithm(),
+                new PriorityPromotionAlgorithm(true),
+                new TangleLearningAlgorithm(),
+                new SuccinctMeasureAlgorithm(),
+                new QuasiPolynomialRecursiveAlgorithm(),
+                new FixpointIterationAlgorithm(),
+                new IndexedStrategyImprovementAlgorithm(),
+                new ParallelStrategyImprovementAlgorithm(),
+                new DiscreteStrategyImprovementAlgorithm(),
+                new DiscreteStrategyImprovementAlgorithm(
+                        SwitchingRule.ALL_PROFITABLE),
+                new DiscreteStrategyImprovementAlgorithm(
+                        SwitchingRule.RANDOM_FACET),
+                new EnergyMeasureAlgorithm());
     }
 
 }
@@ -16,14 +16,14 @@ public class AttractiveSmallMeasureAlgorithm extends SmallMeasureAlgorithm {
         final boolean lifted = measure.lift(vertex);
         if (lifted) {
             iterator.liftWasSuccessful(vertex);
-            if (measure.get(vertex).isTop()) {
+            if (measure.isTop(vertex)) {
                 AttractorStrategyPair attractor = AttractorCalculator.getAttractor(
                         new ImmutableSet.Builder<ParityVertex>().add(vertex)
                                 .build(), measure.getPlayer().getOponent(),
                         measure.getVertices(), liftable);
                 for (final ParityVertex attractedVertex : attractor
                         .getAttractor()) {
-                    if (!measure.get(attractedVertex).isTop()) {
+                    if (!measure.isTop(attractedVertex)) {
                         measure.setToTop(attractedVertex);
                         iterator.liftWasSuccessful(attractedVertex);
                     }
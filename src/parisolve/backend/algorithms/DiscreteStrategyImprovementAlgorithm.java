@@ -0,0 +1,608 @@
+package parisolve.backend.algorithms;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.IntStream;
+
+import parisolve.backend.CompactArena;
+import parisolve.backend.Player;
+import parisolve.backend.algorithms.helper.IndexedSolution;
+import parisolve.backend.algorithms.helper.Subgame;
+
+/**
+ * implementation of the discrete strategy improvement algorithm of Vöge and
+ * Jurdziński - A Discrete Strategy Improvement Algorithm for Solving Parity
+ * Games (2000).
+ *
+ * The vertices are ordered by their relevance, i.e. by priority and, for
+ * equal priorities, by id. This makes priorities unique without changing the
+ * winner of any play. A strategy of player A is valued by the play profile of
+ * every vertex when player B plays a best response: the most relevant vertex
+ * u of the cycle the play ends in, the set of vertices more relevant than u
+ * which are visited before u is reached and the number of steps until then.
+ * As the colour counts of an <code>Evaluation</code>, a profile is compared
+ * from the most relevant vertex down. A vertex is won by player A if and only
+ * if u is even.
+ *
+ * Once both players have fixed a strategy, every vertex has a single
+ * successor, so the profiles follow from the cycles of this graph. The
+ * vertices are valued bottom-up from the most relevant vertex of every cycle
+ * along the trees of vertices leading to it, level by level. The vertices of a
+ * level only depend on their successor in the level before, so they are
+ * valued in parallel, if there are at least <code>cutoff</code> of them. The
+ * best response of player B is found by letting player B switch to the
+ * successor with the least profile until it does not improve any more.
+ *
+ * Player A switches according to a <code>SwitchingRule</code>. The switches of
+ * different vertices are decided independently and therefore in parallel as
+ * well. Everything runs in a <code>ForkJoinPool</code> of
+ * <code>parallelism</code> threads.
+ *
+ * @see StrategyImprovementAlgorithm
+ */
+public class DiscreteStrategyImprovementAlgorithm implements IndexedSolver {
+    /**
+     * the rules by which player A switches to successors offering a better
+     * profile.
+     */
+    public enum SwitchingRule {
+        /**
+         * every vertex with a better successor switches to the first one.
+         */
+        ALL_PROFITABLE,
+        /**
+         * every vertex with a better successor switches to the best one.
+         */
+        GREEDY,
+        /**
+         * the random facet rule of Ludwig - A Subexponential Randomized
+         * Algorithm for the Simple Stochastic Game Problem (1995), which
+         * removes a random edge not in the strategy, solves the rest
+         * recursively and only switches to this edge, if it then improves the
+         * strategy.
+         */
+        RANDOM_FACET
+    }
+
+    /**
+     * the default for <code>cutoff</code>.
+     */
+    public static final int DEFAULT_CUTOFF = 1000;
+    /**
+     * the default for <code>seed</code>.
+     */
+    public static final long DEFAULT_SEED = 0;
+
+    private final SwitchingRule switchingRule;
+    private final int parallelism;
+    private final int cutoff;
+    /**
+     * the seed of the edges chosen by <code>RANDOM_FACET</code>. Every run
+     * starts from it, so it chooses the same edges on the same game.
+     */
+    private final long seed;
+
+    /**
+     * creates an instance switching greedily and using as many threads as
+     * processors are available to the JVM.
+     */
+    public DiscreteStrategyImprovementAlgorithm() {
+        this(SwitchingRule.GREEDY);
+    }
+
+    /**
+     * creates an instance using as many threads as processors are available
+     * to the JVM.
+     *
+     * @param switchingRule
+     *            the rule by which player A switches
+     */
+    public DiscreteStrategyImprovementAlgorithm(
+            final SwitchingRule switchingRule) {
+        this(switchingRule, Runtime.getRuntime().availableProcessors(),
+                DEFAULT_CUTOFF);
+    }
+
+    /**
+     * @param switchingRule
+     *            the rule by which player A switches
+     * @param parallelism
+     *            the number of threads to value and switch with
+     * @param cutoff
+     *            the number of vertices below which they are valued and
+     *            switched sequentially
+     */
+    public DiscreteStrategyImprovementAlgorithm(
+            final SwitchingRule switchingRule, final int parallelism,
+            final int cutoff) {
+        this(switchingRule, parallelism, cutoff, DEFAULT_SEED);
+    }
+
+    /**
+     * @param switchingRule
+     *            the rule by which player A switches
+     * @param parallelism
+     *            the number of threads to value and switch with
+     * @param cutoff
+     *            the number of vertices below which they are valued and
+     *            switched sequentially
+     * @param seed
+     *            the seed of the edges chosen by <code>RANDOM_FACET</code>
+     */
+    public DiscreteStrategyImprovementAlgorithm(
+            final SwitchingRule switchingRule, final int parallelism,
+            final int cutoff, final long seed) {
+        this.switchingRule = switchingRule;
+        this.parallelism = parallelism;
+        this.cutoff = cutoff;
+        this.seed = seed;
+    }
+
+    @Override
+    public IndexedSolution getIndexedSolution(final Subgame vertices) {
+        final CompactArena arena = vertices.getArena();
+        final int[] strategy = new int[arena.size()];
+        Arrays.fill(strategy, IndexedSolution.NO_SUCCESSOR);
+        if (vertices.isEmpty()) {
+            return new IndexedSolution(vertices.copy(), new Subgame(arena),
+                    Player.A, strategy);
+        }
+        final Iteration iteration = new Iteration(vertices);
+        final ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(ForkJoinTask.adapt(iteration::improve));
+        } finally {
+            pool.shutdown();
+        }
+
+        final Subgame winningRegionOfA = new Subgame(arena);
+        final Subgame winningRegionOfB = new Subgame(arena);
+        for (final int vertex : iteration.ids) {
+            if (iteration.goodForA[iteration.loop[vertex]]) {
+                winningRegionOfA.add(vertex);
+            } else {
+                winningRegionOfB.add(vertex);
+            }
+            // the strategies of both players are optimal, as neither of them
+            // can switch profitably any more
+            strategy[vertex] = iteration.strategy[vertex];
+        }
+        return new IndexedSolution(winningRegionOfA, winningRegionOfB,
+                Player.A, strategy);
+    }
+
+    /**
+     * the state of a single run of the algorithm. Arrays indexed by vertex are
+     * as large as the arena, but only the entries of the vertices of the
+     * subgame are used.
+     */
+    private final class Iteration {
+        private final Subgame vertices;
+        /**
+         * the vertices of the subgame in ascending order.
+         */
+        private final int[] ids;
+        private final int[] verticesOfA;
+        private final int[] verticesOfB;
+        private final int[] successorOffsets;
+        private final int[] successors;
+        /**
+         * the position of each vertex when ordered by relevance.
+         */
+        private final int[] rank;
+        /**
+         * whether a vertex has an even priority.
+         */
+        private final boolean[] goodForA;
+        /**
+         * whether the vertex with each rank has an even priority.
+         */
+        private final boolean[] rankGoodForA;
+        /**
+         * the successor chosen for every vertex by the strategy of its owner.
+         */
+        private final int[] strategy;
+
+        /**
+         * the most relevant vertex of the cycle the play from each vertex ends
+         * in.
+         */
+        private final int[] loop;
+        /**
+         * the ranks of the vertices more relevant than the loop visited
+         * before it is reached, in descending order. Vertices on the same path
+         * share these arrays, so they must not be changed.
+         */
+        private final int[][] pathSet;
+        private final int[] pathLength;
+
+        /**
+         * the number of the walk which has visited each vertex while searching
+         * for cycles.
+         */
+        private final int[] walk;
+        private final boolean[] isLoop;
+        private final int[] childOffsets;
+        private final int[] children;
+
+        private final boolean[] removed;
+        private final Random random = new Random(seed);
+
+        private Iteration(final Subgame vertices) {
+            final CompactArena arena = vertices.getArena();
+            this.vertices = vertices;
+            successorOffsets = arena.getSuccessorOffsets();
+            successors = arena.getSuccessorTargets();
+            ids = new int[vertices.cardinality()];
+            int numberOfVertices = 0;
+            int numberOfVerticesOfA = 0;
+            for (int vertex = vertices.nextVertex(0); vertex >= 0; vertex = vertices
+                    .nextVertex(vertex + 1)) {
+                ids[numberOfVertices++] = vertex;
+                if (arena.getPlayer(vertex) == Player.A) {
+                    numberOfVerticesOfA++;
+                }
+            }
+            verticesOfA = new int[numberOfVerticesOfA];
+            verticesOfB = new int[ids.length - numberOfVerticesOfA];
+            int nextOfA = 0;
+            int nextOfB = 0;
+            for (final int vertex : ids) {
+                if (arena.getPlayer(vertex) == Player.A) {
+                    verticesOfA[nextOfA++] = vertex;
+                } else {
+                    verticesOfB[nextOfB++] = vertex;
+                }
+            }
+
+            // counting sort by priority keeps vertices of equal priority
+            // ordered by id
+            final int maxPriority = vertices.getMaxPriority();
+            final int[] priorityOffsets = new int[maxPriority + 2];
+            for (final int vertex : ids) {
+                priorityOffsets[arena.getPriority(vertex) + 1]++;
+            }
+            for (int priority = 0; priority <= maxPriority; priority++) {
+                priorityOffsets[priority + 1] += priorityOffsets[priority];
+            }
+            rank = new int[arena.size()];
+            goodForA = new boolean[arena.size()];
+            rankGoodForA = new boolean[ids.length];
+            for (final int vertex : ids) {
+                final int priority = arena.getPriority(vertex);
+                rank[vertex] = priorityOffsets[priority]++;
+                goodForA[vertex] = Player.getPlayerForPriority(priority) == Player.A;
+                rankGoodForA[rank[vertex]] = goodForA[vertex];
+            }
+
+            strategy = new int[arena.size()];
+            for (final int vertex : ids) {
+                for (int edge = successorOffsets[vertex]; edge < successorOffsets[vertex + 1]; edge++) {
+                    if (vertices.contains(successors[edge])) {
+                        strategy[vertex] = successors[edge];
+                        break;
+                    }
+                }
+            }
+
+            loop = new int[arena.size()];
+            pathSet = new int[arena.size()][];
+            pathLength = new int[arena.size()];
+            walk = new int[arena.size()];
+            isLoop = new boolean[arena.size()];
+            childOffsets = new int[arena.size() + 1];
+            children = new int[ids.length];
+            removed = new boolean[successors.length];
+        }
+
+        private void improve() {
+            if (switchingRule == SwitchingRule.RANDOM_FACET) {
+                improveByRandomFacet();
+                respondBest();
+                return;
+            }
+            respondBest();
+            while (switchPlayerA()) {
+                respondBest();
+            }
+        }
+
+        /**
+         * runs the recursion of the random facet rule with a stack of the
+         * edges removed. Switching to an edge and solving the whole game
+         * again is the last step of a call, so instead of a new call, the
+         * current one starts over.
+         */
+        private void improveByRandomFacet() {
+            final int[] stack = new int[successors.length];
+            int stackSize = 0;
+            boolean returning = false;
+            while (true) {
+                if (!returning) {
+                    final int edge = getRandomEdgeNotInStrategy();
+                    if (edge < 0) {
+                        returning = true;
+                    } else {
+                        removed[edge] = true;
+                        stack[stackSize++] = edge;
+                    }
+                    continue;
+                }
+                if (stackSize == 0) {
+                    return;
+                }
+                final int edge = stack[--stackSize];
+                removed[edge] = false;
+                respondBest();
+                final int source = getSource(edge);
+                if (compare(successors[edge], strategy[source]) > 0) {
+                    strategy[source] = successors[edge];
+                    returning = false;
+                }
+            }
+        }
+
+        /**
+         * @return an edge of player A within the subgame, which is neither
+         *         removed nor chosen by the strategy, chosen uniformly at
+         *         random, or -1 if there is none
+         */
+        private int getRandomEdgeNotInStrategy() {
+            int chosen = -1;
+            int numberOfCandidates = 0;
+            for (final int vertex : verticesOfA) {
+                for (int edge = successorOffsets[vertex]; edge < successorOffsets[vertex + 1]; edge++) {
+                    final int successor = successors[edge];
+                    if (!removed[edge] && successor != strategy[vertex]
+                            && vertices.contains(successor)
+                            && random.nextInt(++numberOfCandidates) == 0) {
+                        chosen = edge;
+                    }
+                }
+            }
+            return chosen;
+        }
+
+        private int getSource(final int edge) {
+            // the first offset larger than edge belongs to the vertex after
+            // the source
+            int low = 0;
+            int high = successorOffsets.length - 1;
+            while (high - low > 1) {
+                final int middle = (low + high) >>> 1;
+                if (successorOffsets[middle] <= edge) {
+                    low = middle;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * lets player B switch to the successors with the least profiles
+         * until this does not change the profiles any more. Afterwards, the
+         * profiles are those of the strategy of player A.
+         */
+        private void respondBest() {
+            value();
+            while (stream(verticesOfB).filter(this::switchPlayerB).count() > 0) {
+                value();
+            }
+        }
+
+        /**
+         * @return whether <code>vertex</code> has switched to a successor with
+         *         a lesser profile
+         */
+        private boolean switchPlayerB(final int vertex) {
+            int best = strategy[vertex];
+            for (int edge = successorOffsets[vertex]; edge < successorOffsets[vertex + 1]; edge++) {
+                final int successor = successors[edge];
+                if (vertices.contains(successor) && compare(successor, best) < 0) {
+                    best = successor;
+                }
+            }
+            if (best == strategy[vertex]) {
+                return false;
+            }
+            strategy[vertex] = best;
+            return true;
+        }
+
+        /**
+         * @return whether any vertex of player A has switched
+         */
+        private boolean switchPlayerA() {
+            return stream(verticesOfA).filter(this::switchPlayerA).count() > 0;
+        }
+
+        /**
+         * @return whether <code>vertex</code> has switched to a successor with
+         *         a better profile
+         */
+        private boolean switchPlayerA(final int vertex) {
+            int best = strategy[vertex];
+            for (int edge = successorOffsets[vertex]; edge < successorOffsets[vertex + 1]; edge++) {
+                final int successor = successors[edge];
+                if (vertices.contains(successor) && compare(successor, best) > 0) {
+                    best = successor;
+                    if (switchingRule == SwitchingRule.ALL_PROFITABLE) {
+                        break;
+                    }
+                }
+            }
+            if (best == strategy[vertex]) {
+                return false;
+            }
+            strategy[vertex] = best;
+            return true;
+        }
+
+        /**
+         * calculates the profiles of the current strategies of both players.
+         */
+        private void value() {
+            final int[] loops = findLoops();
+            collectChildren();
+            for (final int vertex : loops) {
+                loop[vertex] = vertex;
+                pathSet[vertex] = new int[0];
+                pathLength[vertex] = 0;
+            }
+            int[] level = loops;
+            while (level.length > 0) {
+                level = stream(level).flatMap(
+                        vertex -> IntStream.range(childOffsets[vertex],
+                                childOffsets[vertex + 1]).map(
+                                index -> children[index])).toArray();
+                stream(level).forEach(this::valueBySuccessor);
+            }
+        }
+
+        /**
+         * follows the strategies from every vertex not visited yet until a
+         * visited vertex is reached. If it has been visited by the same walk,
+         * a new cycle has been found.
+         *
+         * @return the most relevant vertex of every cycle
+         */
+        private int[] findLoops() {
+            Arrays.fill(walk, 0);
+            Arrays.fill(isLoop, false);
+            final int[] loops = new int[ids.length];
+            int numberOfLoops = 0;
+            int walkNumber = 0;
+            for (final int start : ids) {
+                if (walk[start] != 0) {
+                    continue;
+                }
+                walkNumber++;
+                int vertex = start;
+                while (walk[vertex] == 0) {
+                    walk[vertex] = walkNumber;
+                    vertex = strategy[vertex];
+                }
+                if (walk[vertex] == walkNumber) {
+                    int mostRelevant = vertex;
+                    for (int onCycle = strategy[vertex]; onCycle != vertex; onCycle = strategy[onCycle]) {
+                        if (rank[onCycle] > rank[mostRelevant]) {
+                            mostRelevant = onCycle;
+                        }
+                    }
+                    isLoop[mostRelevant] = true;
+                    loops[numberOfLoops++] = mostRelevant;
+                }
+            }
+            return Arrays.copyOf(loops, numberOfLoops);
+        }
+
+        /**
+         * stores the vertices choosing each vertex as their successor, except
+         * for the loops, which are valued first.
+         */
+        private void collectChildren() {
+            Arrays.fill(childOffsets, 0);
+            for (final int vertex : ids) {
+                if (!isLoop[vertex]) {
+                    childOffsets[strategy[vertex] + 1]++;
+                }
+            }
+            for (int vertex = 0; vertex < childOffsets.length - 1; vertex++) {
+                childOffsets[vertex + 1] += childOffsets[vertex];
+            }
+            final int[] nextChild = Arrays.copyOf(childOffsets,
+                    childOffsets.length - 1);
+            for (final int vertex : ids) {
+                if (!isLoop[vertex]) {
+                    children[nextChild[strategy[vertex]]++] = vertex;
+                }
+            }
+        }
+
+        /**
+         * calculates the profile of <code>vertex</code> from that of its
+         * successor.
+         */
+        private void valueBySuccessor(final int vertex) {
+            final int successor = strategy[vertex];
+            final int loopVertex = loop[successor];
+            loop[vertex] = loopVertex;
+            pathLength[vertex] = pathLength[successor] + 1;
+            final int[] successorSet = pathSet[successor];
+            if (rank[vertex] < rank[loopVertex]) {
+                pathSet[vertex] = successorSet;
+                return;
+            }
+            final int[] set = new int[successorSet.length + 1];
+            int index = 0;
+            while (index < successorSet.length
+                    && successorSet[index] > rank[vertex]) {
+                set[index] = successorSet[index];
+                index++;
+            }
+            set[index] = rank[vertex];
+            System.arraycopy(successorSet, index, set, index + 1,
+                    successorSet.length - index);
+            pathSet[vertex] = set;
+        }
+
+        /**
+         * compares the profiles of two vertices.
+         *
+         * @return a positive number, if the profile of <code>vertex</code> is
+         *         better for player A than that of <code>other</code>, a
+         *         negative one, if it is worse, and 0 if they are equal
+         */
+        private int compare(final int vertex, final int other) {
+            final int loopVertex = loop[vertex];
+            if (loopVertex != loop[other]) {
+                return Integer.compare(getReward(loopVertex),
+                        getReward(loop[other]));
+            }
+            // the most relevant vertex in only one of the sets decides
+            final int[] set = pathSet[vertex];
+            final int[] otherSet = pathSet[other];
+            int index = 0;
+            int otherIndex = 0;
+            while (index < set.length && otherIndex < otherSet.length
+                    && set[index] == otherSet[otherIndex]) {
+                index++;
+                otherIndex++;
+            }
+            if (index < set.length
+                    && (otherIndex == otherSet.length || set[index] > otherSet[otherIndex])) {
+                return rankGoodForA[set[index]] ? 1 : -1;
+            }
+            if (otherIndex < otherSet.length) {
+                return rankGoodForA[otherSet[otherIndex]] ? -1 : 1;
+            }
+            // player A wants to reach a loop good for it soon and others late
+            if (goodForA[loopVertex]) {
+                return Integer.compare(pathLength[other], pathLength[vertex]);
+            }
+            return Integer.compare(pathLength[vertex], pathLength[other]);
+        }
+
+        /**
+         * @return a number which is the larger the better it is for player A
+         *         if the play cycles through <code>loopVertex</code> as its
+         *         most relevant vertex
+         */
+        private int getReward(final int loopVertex) {
+            return goodForA[loopVertex] ? ids.length + rank[loopVertex]
+                    : -rank[loopVertex];
+        }
+
+        /**
+         * @return the vertices given, in parallel if there are at least
+         *         <code>cutoff</code> of them
+         */
+        private IntStream stream(final int[] vertices) {
+            final IntStream stream = IntStream.of(vertices);
+            return vertices.length < cutoff ? stream : stream.parallel();
+        }
+    }
+}
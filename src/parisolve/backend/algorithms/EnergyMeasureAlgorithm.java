@@ -0,0 +1,422 @@
+package parisolve.backend.algorithms;
+
+import java.util.Arrays;
+
+import parisolve.backend.CompactArena;
+import parisolve.backend.Player;
+import parisolve.backend.algorithms.helper.IndexedSolution;
+import parisolve.backend.algorithms.helper.Subgame;
+
+/**
+ * solves parity games by reducing them to energy games, which are solved by
+ * the small energy progress measures of Brim, Chaloupka, Doyen, Gentilini and
+ * Raskin - Faster algorithms for mean-payoff games (2011).
+ *
+ * As in <code>SimpleAlgorithm</code>, every vertex is given a weight whose
+ * absolute value exceeds the sum of the absolute values of the weights of all
+ * vertices with lower priority and whose sign is positive for even and
+ * negative for odd priorities. Then the weight of every simple cycle has the
+ * sign of its maximal priority and player A wins a vertex of the parity game
+ * if and only if the mean payoff from it is positive. Instead of
+ * <code>(-n)^i</code>, the absolute value of the weight of priority
+ * <code>p</code> is 1 plus the sum of the absolute values of the weights of
+ * the vertices of lower priorities. This grows with the number of vertices of
+ * each priority rather than with <code>n</code> to the power of the priority
+ * and can be calculated by saturating arithmetic. If the sum of all weights
+ * does not fit into a <code>long</code>, which <code>canLift()</code> tells,
+ * the game is solved by <code>IndexedRecursiveAlgorithm</code> instead.
+ *
+ * A vertex has a positive mean payoff if and only if player A can keep the
+ * sum of the weights seen, i.e. the energy, non-negative from some initial
+ * credit. The least credit needed from each vertex is the least fixpoint of
+ * lifting it to the best value of its successors minus its weight, but at
+ * least 0. Player A moves to the successor needing the least credit, player B
+ * to the one needing the most. A credit larger than the sum of the absolute
+ * values of all negative weights is never needed, so it is set to
+ * <code>TOP</code>, which marks the vertices won by player B. The credits are
+ * kept in a <code>long[]</code> and vertices are lifted from a worklist, to
+ * which the predecessors of every vertex lifted are added.
+ *
+ * Lifting one vertex at a time needs a number of lifts in the order of the
+ * credits, which are exponential in the number of priorities. Most of them
+ * are spent on cycles of negative weight, around which the credits rise by
+ * the weight of the cycle in every round until they reach <code>TOP</code>.
+ * Therefore, if a vertex is lifted again through the same best successor, the
+ * best successors are followed from it. If they lead back to it on a cycle of
+ * negative weight, the cycle is lifted once more, so that its credits rise by
+ * the same amount in every further round, and as many rounds as neither
+ * player would leave the cycle are done at once. As the result is the one of
+ * lifting the vertices of the cycle one by one, it stays below the least
+ * fixpoint. Every cycle of player B or of vertices with no other way out goes
+ * to <code>TOP</code> in a single step this way.
+ *
+ * The strategy of player A is to move to the best successor. The strategy of
+ * player B is taken from the dual energy game on player B's winning region, in
+ * which the weights are negated and player B needs the credit. As the
+ * winning region is a trap for player A and no cycle has weight 0, player B
+ * needs a finite credit from every vertex of it.
+ *
+ * @see SimpleAlgorithm
+ */
+public class EnergyMeasureAlgorithm implements IndexedSolver {
+    /**
+     * the credit of the vertices from which no credit suffices.
+     */
+    public static final long TOP = Long.MAX_VALUE;
+
+    @Override
+    public IndexedSolution getIndexedSolution(final Subgame vertices) {
+        final CompactArena arena = vertices.getArena();
+        final int[] strategy = new int[arena.size()];
+        Arrays.fill(strategy, IndexedSolution.NO_SUCCESSOR);
+        if (vertices.isEmpty()) {
+            return new IndexedSolution(vertices.copy(), new Subgame(arena),
+                    Player.A, strategy);
+        }
+        final long[] weightOfPriority = getWeightOfPriority(vertices);
+        if (weightOfPriority == null) {
+            return solveWithoutLifting(vertices);
+        }
+        final Lifting lifting = new Lifting(vertices, weightOfPriority,
+                Player.A);
+        lifting.lift();
+
+        final Subgame winningRegionOfA = new Subgame(arena);
+        final Subgame winningRegionOfB = new Subgame(arena);
+        for (int vertex = vertices.nextVertex(0); vertex >= 0; vertex = vertices
+                .nextVertex(vertex + 1)) {
+            if (lifting.credits[vertex] == TOP) {
+                winningRegionOfB.add(vertex);
+            } else {
+                winningRegionOfA.add(vertex);
+                if (arena.getPlayer(vertex) == Player.A) {
+                    strategy[vertex] = lifting.getBestSuccessor(vertex);
+                }
+            }
+        }
+        if (!winningRegionOfB.isEmpty()) {
+            final Lifting dualLifting = new Lifting(winningRegionOfB,
+                    weightOfPriority, Player.B);
+            dualLifting.lift();
+            for (int vertex = winningRegionOfB.nextVertex(0); vertex >= 0; vertex = winningRegionOfB
+                    .nextVertex(vertex + 1)) {
+                if (arena.getPlayer(vertex) == Player.B
+                        && dualLifting.credits[vertex] != TOP) {
+                    strategy[vertex] = dualLifting.getBestSuccessor(vertex);
+                }
+            }
+        }
+        return new IndexedSolution(winningRegionOfA, winningRegionOfB,
+                Player.A, strategy);
+    }
+
+    /**
+     * @return whether the weights of <code>vertices</code> fit into a
+     *         <code>long</code>, so that <code>getIndexedSolution()</code>
+     *         lifts rather than calling <code>solveWithoutLifting()</code>
+     */
+    public static boolean canLift(final Subgame vertices) {
+        return vertices.isEmpty() || getWeightOfPriority(vertices) != null;
+    }
+
+    /**
+     * solves the game by <code>IndexedRecursiveAlgorithm</code>, if its
+     * weights do not fit into a <code>long</code>.
+     */
+    protected IndexedSolution solveWithoutLifting(final Subgame vertices) {
+        return new IndexedRecursiveAlgorithm().getIndexedSolution(vertices);
+    }
+
+    /**
+     * calculates the weight of the vertices of each priority, such that the
+     * absolute value of each weight is larger than the sum of the absolute
+     * values of the weights of all vertices of lower priority.
+     *
+     * @return the weights or <code>null</code>, if the sum of the absolute
+     *         values of all weights does not fit into a <code>long</code>
+     */
+    private static long[] getWeightOfPriority(final Subgame vertices) {
+        final CompactArena arena = vertices.getArena();
+        final int maxPriority = vertices.getMaxPriority();
+        final long[] counts = new long[maxPriority + 1];
+        for (int vertex = vertices.nextVertex(0); vertex >= 0; vertex = vertices
+                .nextVertex(vertex + 1)) {
+            counts[arena.getPriority(vertex)]++;
+        }
+        final long[] weights = new long[maxPriority + 1];
+        long sumOfLowerWeights = 0;
+        for (int priority = 0; priority <= maxPriority; priority++) {
+            final long weight = saturatedAdd(sumOfLowerWeights, 1);
+            weights[priority] = priority % 2 == 0 ? weight : -weight;
+            sumOfLowerWeights = saturatedAdd(sumOfLowerWeights,
+                    saturatedMultiply(counts[priority], weight));
+        }
+        // lifting subtracts a weight from a credit up to the sum of all
+        // weights, which therefore must not come close to TOP
+        if (sumOfLowerWeights > TOP / 2) {
+            return null;
+        }
+        return weights;
+    }
+
+    /**
+     * @return <code>a + b</code> for non-negative <code>a</code> and
+     *         <code>b</code>, but at most <code>TOP</code>
+     */
+    private static long saturatedAdd(final long a, final long b) {
+        return a > TOP - b ? TOP : a + b;
+    }
+
+    /**
+     * @return <code>a * b</code> for non-negative <code>a</code> and
+     *         <code>b</code>, but at most <code>TOP</code>
+     */
+    private static long saturatedMultiply(final long a, final long b) {
+        return a != 0 && b > TOP / a ? TOP : a * b;
+    }
+
+    /**
+     * the state of a single run of the lifting.
+     */
+    private static final class Lifting {
+        private final Subgame vertices;
+        private final int[] successorOffsets;
+        private final int[] successors;
+        private final int[] predecessorOffsets;
+        private final int[] predecessors;
+        /**
+         * whether each vertex belongs to the player who needs the credit.
+         */
+        private final boolean[] ownedByEnergyPlayer;
+        private final long[] weights;
+        /**
+         * the largest credit needed by any vertex which does not need
+         * <code>TOP</code>.
+         */
+        private final long maxCredit;
+        private final long[] credits;
+        /**
+         * the vertices to lift as a ring buffer. Each vertex is in it at most
+         * once, as marked by <code>queued</code>.
+         */
+        private final int[] worklist;
+        private final boolean[] queued;
+        private int head;
+        private int size;
+        /**
+         * the best successor of each vertex when it has been lifted last, or
+         * <code>NO_SUCCESSOR</code> if it has not been lifted yet.
+         */
+        private final int[] bestSuccessors;
+        /**
+         * the vertices of the cycle being accelerated, which are marked by
+         * <code>cycleMarks</code> equal to <code>cycleMark</code>.
+         */
+        private final int[] cycle;
+        private final int[] cycleMarks;
+        private int cycleMark;
+
+        /**
+         * @param energyPlayer
+         *            the player who needs the credit, for whom the weights are
+         *            negated if it is player B
+         */
+        private Lifting(final Subgame vertices, final long[] weightOfPriority,
+                final Player energyPlayer) {
+            final CompactArena arena = vertices.getArena();
+            this.vertices = vertices;
+            successorOffsets = arena.getSuccessorOffsets();
+            successors = arena.getSuccessorTargets();
+            predecessorOffsets = arena.getPredecessorOffsets();
+            predecessors = arena.getPredecessorTargets();
+            ownedByEnergyPlayer = new boolean[arena.size()];
+            weights = new long[arena.size()];
+            credits = new long[arena.size()];
+            worklist = new int[vertices.cardinality()];
+            queued = new boolean[arena.size()];
+            bestSuccessors = new int[arena.size()];
+            cycle = new int[worklist.length];
+            cycleMarks = new int[arena.size()];
+            long sumOfNegativeWeights = 0;
+            for (int vertex = vertices.nextVertex(0); vertex >= 0; vertex = vertices
+                    .nextVertex(vertex + 1)) {
+                ownedByEnergyPlayer[vertex] = arena.getPlayer(vertex) == energyPlayer;
+                final long weight = weightOfPriority[arena.getPriority(vertex)];
+                weights[vertex] = energyPlayer == Player.A ? weight : -weight;
+                if (weights[vertex] < 0) {
+                    sumOfNegativeWeights -= weights[vertex];
+                }
+                bestSuccessors[vertex] = IndexedSolution.NO_SUCCESSOR;
+                worklist[size++] = vertex;
+                queued[vertex] = true;
+            }
+            maxCredit = sumOfNegativeWeights;
+        }
+
+        private void lift() {
+            while (size > 0) {
+                final int vertex = worklist[head];
+                head = (head + 1) % worklist.length;
+                size--;
+                queued[vertex] = false;
+                final int previousBestSuccessor = bestSuccessors[vertex];
+                if (lift(vertex)) {
+                    if (bestSuccessors[vertex] == previousBestSuccessor
+                            && credits[vertex] != TOP) {
+                        accelerate(vertex);
+                    }
+                    addPredecessors(vertex);
+                }
+            }
+        }
+
+        /**
+         * lifts <code>vertex</code> to the credit needed when moving to its
+         * best successor.
+         *
+         * @return whether this has changed the credit of <code>vertex</code>
+         */
+        private boolean lift(final int vertex) {
+            final int bestSuccessor = getBestSuccessor(vertex);
+            bestSuccessors[vertex] = bestSuccessor;
+            final long best = credits[bestSuccessor];
+            // as credits and weights are bounded by half of TOP, this does
+            // not overflow
+            final long credit = best == TOP ? TOP : Math.max(0, best
+                    - weights[vertex]);
+            final long newCredit = credit > maxCredit ? TOP : credit;
+            if (newCredit <= credits[vertex]) {
+                return false;
+            }
+            credits[vertex] = newCredit;
+            return true;
+        }
+
+        /**
+         * follows the best successors from <code>start</code>. If they lead
+         * back to it on a cycle of negative weight, the cycle is lifted by as
+         * many rounds as its vertices keep their best successors.
+         */
+        private void accelerate(final int start) {
+            cycleMark++;
+            int length = 0;
+            long weightOfCycle = 0;
+            int vertex = start;
+            do {
+                if (vertex == IndexedSolution.NO_SUCCESSOR
+                        || credits[vertex] == TOP
+                        || cycleMarks[vertex] == cycleMark) {
+                    // the best successors do not lead back to start
+                    return;
+                }
+                cycleMarks[vertex] = cycleMark;
+                cycle[length++] = vertex;
+                weightOfCycle += weights[vertex];
+                vertex = bestSuccessors[vertex];
+            } while (vertex != start);
+            if (weightOfCycle >= 0) {
+                return;
+            }
+            // lift the cycle backwards from start once more, so every credit
+            // is the one of its successor minus its weight. Then each further
+            // round raises every credit by the same amount.
+            for (int index = length - 1; index > 0; index--) {
+                final int current = cycle[index];
+                final int next = cycle[(index + 1) % length];
+                lift(current);
+                if (bestSuccessors[current] != next || credits[current] == TOP
+                        || credits[current] != credits[next] - weights[current]) {
+                    addPredecessorsOfCycle(length);
+                    return;
+                }
+            }
+            final long raisePerRound = -weightOfCycle;
+            final long rounds = getRoundsOnCycle(length, raisePerRound);
+            if (rounds > maxCredit / raisePerRound) {
+                for (int index = 0; index < length; index++) {
+                    credits[cycle[index]] = TOP;
+                }
+            } else {
+                // as rounds * raisePerRound is at most maxCredit, this does
+                // not overflow
+                for (int index = 0; index < length; index++) {
+                    final long credit = credits[cycle[index]] + rounds
+                            * raisePerRound;
+                    credits[cycle[index]] = credit > maxCredit ? TOP : credit;
+                }
+            }
+            addPredecessorsOfCycle(length);
+        }
+
+        /**
+         * @return the number of rounds the vertices of the energy player on
+         *         the cycle keep their successor on it, if all credits on it
+         *         rise by <code>raisePerRound</code> per round, or
+         *         <code>Long.MAX_VALUE</code> if they keep it for ever
+         */
+        private long getRoundsOnCycle(final int length,
+                final long raisePerRound) {
+            long rounds = Long.MAX_VALUE;
+            for (int index = 0; index < length; index++) {
+                final int vertex = cycle[index];
+                if (!ownedByEnergyPlayer[vertex]) {
+                    // the opponent moves to the successor needing the most,
+                    // which keeps being the one on the cycle
+                    continue;
+                }
+                final int next = cycle[(index + 1) % length];
+                for (int edge = successorOffsets[vertex]; edge < successorOffsets[vertex + 1]; edge++) {
+                    final int successor = successors[edge];
+                    if (successor == next || !vertices.contains(successor)
+                            || credits[successor] == TOP) {
+                        continue;
+                    }
+                    final long lead = credits[successor] - credits[next];
+                    if (lead < 0) {
+                        return 0;
+                    }
+                    rounds = Math.min(rounds, lead / raisePerRound);
+                }
+            }
+            return rounds;
+        }
+
+        /**
+         * @return the successor needing the least credit for a vertex of the
+         *         energy player and the one needing the most for a vertex of
+         *         its opponent
+         */
+        private int getBestSuccessor(final int vertex) {
+            int best = -1;
+            for (int index = successorOffsets[vertex]; index < successorOffsets[vertex + 1]; index++) {
+                final int successor = successors[index];
+                if (!vertices.contains(successor)) {
+                    continue;
+                }
+                if (best < 0
+                        || (ownedByEnergyPlayer[vertex] ? credits[successor] < credits[best]
+                                : credits[successor] > credits[best])) {
+                    best = successor;
+                }
+            }
+            return best;
+        }
+
+        private void addPredecessorsOfCycle(final int length) {
+            for (int index = 0; index < length; index++) {
+                addPredecessors(cycle[index]);
+            }
+        }
+
+        private void addPredecessors(final int vertex) {
+            for (int index = predecessorOffsets[vertex]; index < predecessorOffsets[vertex + 1]; index++) {
+                final int predecessor = predecessors[index];
+                if (vertices.contains(predecessor) && !queued[predecessor]
+                        && credits[predecessor] != TOP) {
+                    queued[predecessor] = true;
+                    worklist[(head + size++) % worklist.length] = predecessor;
+                }
+            }
+        }
+    }
+}
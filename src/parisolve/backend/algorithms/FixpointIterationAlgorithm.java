@@ -0,0 +1,373 @@
+package parisolve.backend.algorithms;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.IntStream;
+
+import parisolve.backend.CompactArena;
+import parisolve.backend.Player;
+import parisolve.backend.algorithms.helper.IndexedSolution;
+import parisolve.backend.algorithms.helper.Subgame;
+
+/**
+ * implementation of the distraction fixpoint iteration of van Dijk and
+ * Rubbens - Simple Fixpoint Iteration To Solve Parity Games (2019).
+ *
+ * Every vertex is assumed to be won by the player of its priority, unless it
+ * is a distraction. A vertex v of priority p is a distraction, if the player
+ * of p loses the next step from v under this assumption, i.e. if it is the
+ * opponent's vertex and can move to a vertex assumed to be won by the
+ * opponent, or if it is the vertex of the player of p and can only move to
+ * such vertices. Going up from the lowest priority, the distractions of each
+ * priority are searched. If new ones are found, the distractions of the lower
+ * priorities of the other player are reset and the search starts over at the
+ * lowest priority. This evaluates the nested fixpoint formula of the game, so
+ * once no new distraction is found, every vertex is won by the player it is
+ * assumed to be won by. As in the algorithm of Emerson and Lei, the
+ * distractions of lower priorities of the same player are kept, as they can
+ * only become more.
+ *
+ * A vertex which is no distraction stays none until the winner of one of its
+ * successors changes. Therefore, only the vertices with such a successor are
+ * looked at again, which are kept in a list of pending vertices per priority.
+ * The pending vertices of a priority are looked at independently. If there
+ * are at least <code>cutoff</code> of them, as in the first sweep over all
+ * vertices, they are looked at by a parallel stream, which runs in a
+ * <code>ForkJoinPool</code> of <code>parallelism</code> threads. Distractions
+ * found are marked right away, so other threads may or may not see them in
+ * the same sweep. Both is fine: a vertex becoming a distraction can only turn
+ * other vertices of the same priority into distractions, but not the other
+ * way round, so no distraction is found wrongly.
+ *
+ * The vertices are renumbered by their position when sorted by priority, and
+ * their successors and predecessors are stored in these positions, so the
+ * lists of each priority can be kept in the range of its positions.
+ *
+ * As every new distraction may start the search over at the lowest priority,
+ * the cost grows exponentially with the number of priorities, which the
+ * fixpoint iteration cannot avoid. It suits games with few priorities, even
+ * if they are large.
+ *
+ * Only the winning regions are determined, not the strategies. Moving to any
+ * successor won by the same player does not suffice as a strategy, as it may
+ * close a cycle which this player loses.
+ */
+public class FixpointIterationAlgorithm implements IndexedSolver {
+    /**
+     * the default for <code>cutoff</code>.
+     */
+    public static final int DEFAULT_CUTOFF = 10000;
+
+    private final int parallelism;
+    private final int cutoff;
+
+    /**
+     * creates an instance using as many threads as processors are available
+     * to the JVM.
+     */
+    public FixpointIterationAlgorithm() {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_CUTOFF);
+    }
+
+    /**
+     * @param parallelism
+     *            the number of threads to sweep with
+     * @param cutoff
+     *            the number of vertices of a priority below which they are
+     *            swept sequentially
+     */
+    public FixpointIterationAlgorithm(final int parallelism, final int cutoff) {
+        this.parallelism = parallelism;
+        this.cutoff = cutoff;
+    }
+
+    @Override
+    public IndexedSolution getIndexedSolution(final Subgame vertices) {
+        final CompactArena arena = vertices.getArena();
+        final int[] strategy = new int[arena.size()];
+        Arrays.fill(strategy, IndexedSolution.NO_SUCCESSOR);
+        if (vertices.isEmpty()) {
+            return new IndexedSolution(vertices.copy(), new Subgame(arena),
+                    Player.A, strategy);
+        }
+        final Iteration iteration = new Iteration(vertices);
+        final ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(ForkJoinTask.adapt(iteration::iterate));
+        } finally {
+            pool.shutdown();
+        }
+
+        final Subgame winningRegionOfA = new Subgame(arena);
+        final Subgame winningRegionOfB = new Subgame(arena);
+        for (int position = 0; position < iteration.vertexAt.length; position++) {
+            final int vertex = iteration.vertexAt[position];
+            final int winner = iteration.getWinner(position);
+            if (winner == Player.A.getNumber()) {
+                winningRegionOfA.add(vertex);
+            } else {
+                winningRegionOfB.add(vertex);
+            }
+        }
+        return new IndexedSolution(winningRegionOfA, winningRegionOfB,
+                Player.A, strategy);
+    }
+
+    /**
+     * the state of a single run of the iteration, on the vertices renumbered
+     * by their position.
+     */
+    private final class Iteration {
+        /**
+         * the vertex of the arena at each position.
+         */
+        private final int[] vertexAt;
+        /**
+         * the first position of each priority, followed by the number of
+         * vertices. The lists below keep the entries of each priority in the
+         * range of positions of this priority.
+         */
+        private final int[] priorityOffsets;
+        private final int[] priorities;
+        /**
+         * the number of the player of the priority of each position.
+         */
+        private final byte[] parities;
+        /**
+         * the number of the player owning each position.
+         */
+        private final byte[] owners;
+        private final int[] successorOffsets;
+        private final int[] successors;
+        private final int[] predecessorOffsets;
+        private final int[] predecessors;
+        private final boolean[] distracted;
+        /**
+         * the distractions of each priority.
+         */
+        private final int[] distractions;
+        private final int[] numberOfDistractions;
+        /**
+         * whether a position has to be looked at again, because the winner of
+         * one of its successors has changed since it has been looked at last.
+         * Every other position which is no distraction would still be none.
+         */
+        private final boolean[] pending;
+        private final int[] pendingPositions;
+        private final int[] numberOfPendingPositions;
+
+        private Iteration(final Subgame vertices) {
+            final CompactArena arena = vertices.getArena();
+            final int maxPriority = vertices.getMaxPriority();
+            priorityOffsets = new int[maxPriority + 2];
+            for (int vertex = vertices.nextVertex(0); vertex >= 0; vertex = vertices
+                    .nextVertex(vertex + 1)) {
+                priorityOffsets[arena.getPriority(vertex) + 1]++;
+            }
+            for (int priority = 0; priority <= maxPriority; priority++) {
+                priorityOffsets[priority + 1] += priorityOffsets[priority];
+            }
+
+            final int size = priorityOffsets[maxPriority + 1];
+            vertexAt = new int[size];
+            final int[] positionOf = new int[arena.size()];
+            final int[] nextPosition = Arrays.copyOf(priorityOffsets,
+                    maxPriority + 1);
+            for (int vertex = vertices.nextVertex(0); vertex >= 0; vertex = vertices
+                    .nextVertex(vertex + 1)) {
+                final int position = nextPosition[arena.getPriority(vertex)]++;
+                vertexAt[position] = vertex;
+                positionOf[vertex] = position;
+            }
+
+            priorities = new int[size];
+            parities = new byte[size];
+            owners = new byte[size];
+            for (int position = 0; position < size; position++) {
+                final int vertex = vertexAt[position];
+                priorities[position] = arena.getPriority(vertex);
+                parities[position] = (byte) (priorities[position] % 2);
+                owners[position] = (byte) arena.getPlayer(vertex).getNumber();
+            }
+            successorOffsets = new int[size + 1];
+            successors = getEdgesOfPositions(vertices, positionOf,
+                    arena.getSuccessorOffsets(), arena.getSuccessorTargets(),
+                    successorOffsets);
+            predecessorOffsets = new int[size + 1];
+            predecessors = getEdgesOfPositions(vertices, positionOf,
+                    arena.getPredecessorOffsets(),
+                    arena.getPredecessorTargets(), predecessorOffsets);
+
+            distracted = new boolean[size];
+            distractions = new int[size];
+            numberOfDistractions = new int[maxPriority + 1];
+            pending = new boolean[size];
+            Arrays.fill(pending, true);
+            pendingPositions = new int[size];
+            for (int position = 0; position < size; position++) {
+                pendingPositions[position] = position;
+            }
+            numberOfPendingPositions = new int[maxPriority + 1];
+            for (int priority = 0; priority <= maxPriority; priority++) {
+                numberOfPendingPositions[priority] = priorityOffsets[priority + 1]
+                        - priorityOffsets[priority];
+            }
+        }
+
+        /**
+         * translates the edges of the arena given by <code>arenaOffsets</code>
+         * and <code>arenaTargets</code> within <code>vertices</code> to
+         * positions.
+         *
+         * @return the targets of the edges of each position, which start at
+         *         the offsets written to <code>offsets</code>
+         */
+        private int[] getEdgesOfPositions(final Subgame vertices,
+                final int[] positionOf, final int[] arenaOffsets,
+                final int[] arenaTargets, final int[] offsets) {
+            final int[] targets = new int[arenaTargets.length];
+            int numberOfTargets = 0;
+            for (int position = 0; position < vertexAt.length; position++) {
+                final int vertex = vertexAt[position];
+                offsets[position] = numberOfTargets;
+                for (int index = arenaOffsets[vertex]; index < arenaOffsets[vertex + 1]; index++) {
+                    if (vertices.contains(arenaTargets[index])) {
+                        targets[numberOfTargets++] = positionOf[arenaTargets[index]];
+                    }
+                }
+            }
+            offsets[vertexAt.length] = numberOfTargets;
+            return targets;
+        }
+
+        private void iterate() {
+            final int maxPriority = priorityOffsets.length - 2;
+            int priority = 0;
+            while (priority <= maxPriority) {
+                boolean found = false;
+                while (numberOfPendingPositions[priority] > 0) {
+                    // distractions may turn others of the same priority into
+                    // distractions
+                    found |= sweep(priority);
+                }
+                if (found) {
+                    // the fixpoints of the lower priorities of the other
+                    // player have to be recalculated, those of the player of
+                    // this priority can only shrink further
+                    for (int lower = priority - 1; lower >= 0; lower -= 2) {
+                        reset(lower);
+                    }
+                    priority = 0;
+                } else {
+                    priority++;
+                }
+            }
+        }
+
+        /**
+         * looks at the pending positions of <code>priority</code> and marks
+         * those which are distractions.
+         *
+         * @return whether a new distraction has been found
+         */
+        private boolean sweep(final int priority) {
+            final int offset = priorityOffsets[priority];
+            final int[] positions = Arrays.copyOfRange(pendingPositions,
+                    offset, offset + numberOfPendingPositions[priority]);
+            numberOfPendingPositions[priority] = 0;
+            for (final int position : positions) {
+                pending[position] = false;
+            }
+
+            final int[] newDistractions;
+            if (positions.length < cutoff) {
+                int numberOfNewDistractions = 0;
+                for (final int position : positions) {
+                    if (markIfDistraction(position)) {
+                        positions[numberOfNewDistractions++] = position;
+                    }
+                }
+                newDistractions = Arrays.copyOf(positions,
+                        numberOfNewDistractions);
+            } else {
+                newDistractions = IntStream.of(positions).parallel()
+                        .filter(this::markIfDistraction).toArray();
+            }
+            for (final int position : newDistractions) {
+                distractions[offset + numberOfDistractions[priority]++] = position;
+                addPredecessorsToPending(position);
+            }
+            return newDistractions.length > 0;
+        }
+
+        /**
+         * removes all distractions of <code>priority</code>.
+         */
+        private void reset(final int priority) {
+            final int offset = priorityOffsets[priority];
+            for (int index = offset; index < offset
+                    + numberOfDistractions[priority]; index++) {
+                final int position = distractions[index];
+                distracted[position] = false;
+                addToPending(position);
+                addPredecessorsToPending(position);
+            }
+            numberOfDistractions[priority] = 0;
+        }
+
+        private void addPredecessorsToPending(final int position) {
+            for (int index = predecessorOffsets[position]; index < predecessorOffsets[position + 1]; index++) {
+                addToPending(predecessors[index]);
+            }
+        }
+
+        private void addToPending(final int position) {
+            if (!pending[position] && !distracted[position]) {
+                pending[position] = true;
+                final int priority = priorities[position];
+                pendingPositions[priorityOffsets[priority]
+                        + numberOfPendingPositions[priority]++] = position;
+            }
+        }
+
+        /**
+         * @return whether <code>position</code> has become a distraction
+         */
+        private boolean markIfDistraction(final int position) {
+            if (distracted[position]) {
+                return false;
+            }
+            final boolean ownerWins = getSuccessorWonBy(position,
+                    owners[position]) >= 0;
+            final boolean parityWins = ownerWins == (owners[position] == parities[position]);
+            if (parityWins) {
+                return false;
+            }
+            distracted[position] = true;
+            return true;
+        }
+
+        /**
+         * @return the number of the player <code>position</code> is assumed
+         *         to be won by
+         */
+        private int getWinner(final int position) {
+            return distracted[position] ? 1 - parities[position]
+                    : parities[position];
+        }
+
+        /**
+         * @return a successor of <code>position</code> assumed to be won by
+         *         the player with the number given or -1 if there is none
+         */
+        private int getSuccessorWonBy(final int position, final int player) {
+            for (int index = successorOffsets[position]; index < successorOffsets[position + 1]; index++) {
+                if (getWinner(successors[index]) == player) {
+                    return successors[index];
+                }
+            }
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package parisolve.backend.algorithms;
+
+import java.util.Arrays;
+
+import parisolve.backend.CompactArena;
+import parisolve.backend.Player;
+import parisolve.backend.algorithms.helper.IndexedAttractorCalculator;
+import parisolve.backend.algorithms.helper.IndexedSolution;
+import parisolve.backend.algorithms.helper.Subgame;
+
+/**
+ * the algorithm of <code>RecursiveAlgorithm</code> on the ids of a
+ * <code>CompactArena</code>. Subgames are <code>Subgame</code>s, attractors are
+ * calculated by an <code>IndexedAttractorCalculator</code> and the strategy
+ * is written to a single array which is shared by all recursive calls: every
+ * call only writes to the vertices of its subgame and the vertices, whose
+ * strategy is decided by a later call, are overwritten by this later call.
+ *
+ * @see RecursiveAlgorithm
+ */
+public class IndexedRecursiveAlgorithm implements IndexedSolver {
+    protected CompactArena arena;
+    protected IndexedAttractorCalculator attractorCalculator;
+    protected int[] strategy;
+
+    @Override
+    public IndexedSolution getIndexedSolution(final Subgame vertices) {
+        arena = vertices.getArena();
+        attractorCalculator = new IndexedAttractorCalculator(arena);
+        strategy = new int[arena.size()];
+        Arrays.fill(strategy, IndexedSolution.NO_SUCCESSOR);
+        return solveGame(vertices.copy());
+    }
+
+    /**
+     * solves the subgame given by returning the partition of the given
+     * vertices into the winning regions. This corresponds to Abbildung 15.5 in
+     * Hofmann and Lange (2011).
+     *
+     * @param vertices
+     *            the subgame to solve. This is G in Abbildung 15.5
+     * @return a partition with a set of vertices for each player to win upon.
+     */
+    protected IndexedSolution solveGame(final Subgame vertices) {
+        if (vertices.isEmpty()) {
+            return new IndexedSolution(vertices, new Subgame(arena), Player.A,
+                    strategy);
+        }
+        // in Abbildung 15.5 this is n
+        final int maxPriority = vertices.getMaxPriority();
+        final Player sigma = Player.getPlayerForPriority(maxPriority);
+        if (maxPriority == vertices.getMinPriority()) {
+            addArbitraryStrategyForSigmaOnVertices(sigma, vertices, vertices);
+            return new IndexedSolution(vertices, new Subgame(arena), sigma,
+                    strategy);
+        }
+
+        // in Abbildung 15.5 verticesWithMaxPriority is N
+        final Subgame verticesWithMaxPriority = vertices
+                .getVerticesWithPriority(maxPriority);
+        // in Abbildung 15.5 attractorOfMaxPrio is N'
+        final Subgame attractorOfMaxPrio = getAttractor(
+                verticesWithMaxPriority, sigma, vertices);
+
+        // in Abbildung 15.5 solutionWithoutMaxPrio is W'
+        final IndexedSolution solutionWithoutMaxPrio = solveGameForOtherVertices(
+                vertices, attractorOfMaxPrio);
+        final Subgame winningRegionOfOpponent = solutionWithoutMaxPrio
+                .getWinningRegionFor(sigma.getOponent());
+        if (winningRegionOfOpponent.isEmpty()) {
+            // sigma wins all vertices in G\N' and therefore all in G
+            addArbitraryStrategyForSigmaOnVertices(sigma,
+                    verticesWithMaxPriority, vertices);
+            return new IndexedSolution(vertices, winningRegionOfOpponent,
+                    sigma, strategy);
+        }
+
+        // in Abbildung 15.5 dominionOfSigmaOpponent is N''
+        final Subgame dominionOfSigmaOpponent = getAttractor(
+                winningRegionOfOpponent, sigma.getOponent(), vertices);
+        // in Abbildung 15.5 partition2 is W''
+        final IndexedSolution partition2 = solveGameForOtherVertices(
+                vertices, dominionOfSigmaOpponent);
+        dominionOfSigmaOpponent.addAll(partition2.getWinningRegionFor(sigma
+                .getOponent()));
+        return new IndexedSolution(partition2.getWinningRegionFor(sigma),
+                dominionOfSigmaOpponent, sigma, strategy);
+    }
+
+    /**
+     * helper method: solves the game on the remaining vertices, when removing
+     * <code>verticesToExclude</code> from <code>allVertices</code>.
+     *
+     * @param allVertices
+     *            the entirety of all vertices
+     * @param verticesToExclude
+     *            vertices to exclude when solving the game
+     * @return partition of winning regions for the vertices left
+     */
+    protected final IndexedSolution solveGameForOtherVertices(
+            final Subgame allVertices, final Subgame verticesToExclude) {
+        return solveGame(allVertices.minus(verticesToExclude));
+    }
+
+    /**
+     * calculates the attractor of <code>sigma</code> to <code>vertices</code>
+     * in <code>subgame</code> and writes the strategy of <code>sigma</code>
+     * for the attracted vertices.
+     */
+    protected Subgame getAttractor(final Subgame vertices, final Player sigma,
+            final Subgame subgame) {
+        return attractorCalculator.getAttractor(vertices, sigma, subgame,
+                strategy);
+    }
+
+    /**
+     * lets each vertex of <code>sigma</code> in <code>verticesToChooseFor</code>
+     * move to any of its successors in <code>subgame</code>.
+     */
+    protected final void addArbitraryStrategyForSigmaOnVertices(
+            final Player sigma, final Subgame verticesToChooseFor,
+            final Subgame subgame) {
+        final int[] successorOffsets = arena.getSuccessorOffsets();
+        final int[] successors = arena.getSuccessorTargets();
+        for (int vertex = verticesToChooseFor.nextVertex(0); vertex >= 0; vertex = verticesToChooseFor
+                .nextVertex(vertex + 1)) {
+            if (arena.getPlayer(vertex) != sigma) {
+                continue;
+            }
+            for (int index = successorOffsets[vertex]; index < successorOffsets[vertex + 1]; index++) {
+                if (subgame.contains(successors[index])) {
+                    strategy[vertex] = successors[index];
+                    break;
+                }
+            }
+        }
+    }
+}
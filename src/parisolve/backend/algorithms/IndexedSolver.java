@@ -0,0 +1,48 @@
+package parisolve.backend.algorithms;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import parisolve.backend.Arena;
+import parisolve.backend.CompactArena;
+import parisolve.backend.ParityVertex;
+import parisolve.backend.algorithms.helper.IndexedSolution;
+import parisolve.backend.algorithms.helper.Solution;
+import parisolve.backend.algorithms.helper.Subgame;
+
+/**
+ * interface implemented by algorithms which solve parity games on the ids of
+ * a <code>CompactArena</code> rather than on <code>ParityVertex</code>
+ * -objects. Subgames are given as <code>Subgame</code>s over the ids, so
+ * neither hashing nor boxing is necessary while solving.
+ *
+ * <code>getSolution(Arena)</code> is implemented by converting the arena, if
+ * it is not compact already, and mapping the result back to the original
+ * vertices. Therefore, implementations can be used wherever a
+ * <code>Solver</code> is expected.
+ */
+public interface IndexedSolver extends Solver {
+    /**
+     * solves the subgame of <code>arena</code> induced by the ids given.
+     *
+     * @param vertices
+     *            the ids of the vertices of the subgame. Every vertex in it
+     *            must have a successor in it.
+     * @return the partition of <code>vertices</code> into winning regions
+     *         and a strategy for the winner of each vertex
+     */
+    IndexedSolution getIndexedSolution(final Subgame vertices);
+
+    @Override
+    default Solution getSolution(final Arena arena) {
+        if (arena instanceof CompactArena) {
+            final CompactArena compactArena = (CompactArena) arena;
+            return getIndexedSolution(Subgame.allVerticesOf(compactArena))
+                    .toSolution(compactArena::getVertex);
+        }
+        final List<ParityVertex> vertices = new ArrayList<>(arena);
+        final CompactArena compactArena = CompactArena.fromVertices(vertices);
+        return getIndexedSolution(Subgame.allVerticesOf(compactArena))
+                .toSolution(vertices::get);
+    }
+}
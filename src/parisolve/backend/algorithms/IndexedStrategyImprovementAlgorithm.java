@@ -0,0 +1,567 @@
+package parisolve.backend.algorithms;
+
+import java.util.Arrays;
+
+import parisolve.backend.CompactArena;
+import parisolve.backend.Player;
+import parisolve.backend.algorithms.helper.Evaluations;
+import parisolve.backend.algorithms.helper.IndexedSolution;
+import parisolve.backend.algorithms.helper.Subgame;
+
+/**
+ * the algorithm of <code>StrategyImprovementAlgorithm</code> on the ids of a
+ * <code>CompactArena</code>. The estimation, the improvement potential and the
+ * update are each kept in an <code>Evaluations</code>, indexed by vertex or by
+ * edge, and are calculated in place, so an iteration neither creates
+ * <code>Evaluation</code>-objects nor looks up maps.
+ *
+ * The algorithm needs a bipartite arena. <code>StrategyImprovementAlgorithm</code>
+ * builds one by splitting every edge between two vertices of the same player
+ * by an intermediate vertex of the other player with the priority of the
+ * edge's source. Here, the intermediate vertices are only implicit: the arena
+ * itself is used as it is and every edge between two vertices of the same
+ * player is given an id after the ids of the arena's vertices, under which the
+ * values of its intermediate vertex are kept. The edge from an intermediate
+ * vertex to the target of the edge it splits is given an id after those of
+ * the arena's edges.
+ *
+ * The improvement potential of an edge only depends on the estimations of its
+ * source and its target. Therefore, the potentials are calculated for all
+ * edges once and afterwards only for the edges of vertices whose estimation
+ * has been changed by the last update, so late iterations, which change
+ * few estimations, are cheap.
+ *
+ * The basic update step is the one of <code>StrategyImprovementAlgorithm</code>.
+ * Instead of looking at the successors of a vertex in the improvement arena
+ * every time the vertex is looked at, the number of those not evaluated yet,
+ * the best value they offer and whether they allow case 2 are kept per vertex
+ * and updated whenever a successor is evaluated. Ties in case 4 are broken in
+ * favour of the lowest id.
+ *
+ * @see StrategyImprovementAlgorithm
+ */
+public class IndexedStrategyImprovementAlgorithm implements IndexedSolver {
+
+    @Override
+    public IndexedSolution getIndexedSolution(final Subgame vertices) {
+        final CompactArena arena = vertices.getArena();
+        final int[] strategy = new int[arena.size()];
+        Arrays.fill(strategy, IndexedSolution.NO_SUCCESSOR);
+        if (vertices.isEmpty()) {
+            return new IndexedSolution(vertices.copy(), new Subgame(arena),
+                    Player.A, strategy);
+        }
+        final Improvement improvement = createImprovement(vertices);
+        improvement.improve();
+
+        final Subgame winningRegionOfA = new Subgame(arena);
+        final Subgame winningRegionOfB = new Subgame(arena);
+        for (int vertex = vertices.nextVertex(0); vertex >= 0; vertex = vertices
+                .nextVertex(vertex + 1)) {
+            if (improvement.estimation.isInfinity(vertex)) {
+                winningRegionOfA.add(vertex);
+            } else {
+                winningRegionOfB.add(vertex);
+            }
+        }
+        return new IndexedSolution(winningRegionOfA, winningRegionOfB,
+                Player.A, strategy);
+    }
+
+    /**
+     * @return the state of a single run of the algorithm on
+     *         <code>vertices</code>
+     */
+    Improvement createImprovement(final Subgame vertices) {
+        return new Improvement(vertices);
+    }
+
+    /**
+     * the state of a single run of the algorithm on the implicitly bipartite
+     * arena.
+     */
+    static class Improvement {
+        final Subgame vertices;
+        /**
+         * the number of vertices of the arena, which is the id of the first
+         * intermediate vertex.
+         */
+        final int numberOfVertices;
+        /**
+         * the number of edges of the arena, which is the id of the edge
+         * leaving the first intermediate vertex.
+         */
+        final int numberOfEdges;
+        /**
+         * the number of vertices and intermediate vertices.
+         */
+        final int size;
+        final int[] successorOffsets;
+        final int[] successors;
+        final int[] predecessorOffsets;
+        final int[] predecessors;
+        /**
+         * the edge of each entry of <code>predecessors</code>.
+         */
+        final int[] predecessorEdges;
+        /**
+         * the id of the intermediate vertex splitting each edge or -1 if the
+         * edge is not split.
+         */
+        final int[] intermediateOf;
+        /**
+         * the edge split by each intermediate vertex, indexed by its id minus
+         * <code>numberOfVertices</code>.
+         */
+        final int[] edgeOfIntermediate;
+        final int[] sourceOfIntermediate;
+        final boolean[] ownedByB;
+        private final int[] priorities;
+
+        final Evaluations estimation;
+        /**
+         * the improvement potential of every edge which is in the improvement
+         * arena.
+         */
+        final Evaluations potentials;
+        final boolean[] inImprovementArena;
+        final int[] numberOfPotentials;
+        /**
+         * the vertices whose estimation has been changed by the last update.
+         */
+        private final int[] changed;
+        private int numberOfChanged;
+
+        final Evaluations update;
+        final boolean[] evaluated;
+        int numberOfEvaluated;
+        /**
+         * the number of successors in the improvement arena, which have not
+         * been evaluated yet.
+         */
+        final int[] successorsLeft;
+        /**
+         * the minimum for player B's and the maximum for player A's vertices
+         * of the update of an evaluated successor plus the potential of the
+         * edge to it.
+         */
+        final Evaluations bestValues;
+        /**
+         * whether an evaluated successor allows case 2.
+         */
+        final boolean[] hasZeroMove;
+        private final int[] stack;
+        private int stackSize;
+        private final boolean[] onStack;
+        private final Evaluations scratch;
+
+        Improvement(final Subgame vertices) {
+            this.vertices = vertices;
+            final CompactArena arena = vertices.getArena();
+            numberOfVertices = arena.size();
+            numberOfEdges = arena.getNumberOfEdges();
+            successorOffsets = arena.getSuccessorOffsets();
+            successors = arena.getSuccessorTargets();
+            predecessorOffsets = arena.getPredecessorOffsets();
+            predecessors = arena.getPredecessorTargets();
+
+            // the predecessors are sorted by source, so filling in the edges
+            // in this order keeps them aligned
+            predecessorEdges = new int[numberOfEdges];
+            final int[] nextPredecessor = Arrays.copyOf(predecessorOffsets,
+                    numberOfVertices);
+            intermediateOf = new int[numberOfEdges];
+            Arrays.fill(intermediateOf, -1);
+            int numberOfIntermediates = 0;
+            for (int vertex = 0; vertex < numberOfVertices; vertex++) {
+                for (int edge = successorOffsets[vertex]; edge < successorOffsets[vertex + 1]; edge++) {
+                    final int successor = successors[edge];
+                    predecessorEdges[nextPredecessor[successor]++] = edge;
+                    if (vertices.contains(vertex)
+                            && vertices.contains(successor)
+                            && arena.getPlayer(vertex) == arena
+                                    .getPlayer(successor)) {
+                        intermediateOf[edge] = numberOfVertices
+                                + numberOfIntermediates++;
+                    }
+                }
+            }
+
+            size = numberOfVertices + numberOfIntermediates;
+            edgeOfIntermediate = new int[numberOfIntermediates];
+            sourceOfIntermediate = new int[numberOfIntermediates];
+            ownedByB = new boolean[size];
+            priorities = new int[size];
+            for (int vertex = 0; vertex < numberOfVertices; vertex++) {
+                ownedByB[vertex] = arena.getPlayer(vertex) == Player.B;
+                priorities[vertex] = arena.getPriority(vertex);
+                for (int edge = successorOffsets[vertex]; edge < successorOffsets[vertex + 1]; edge++) {
+                    final int intermediate = intermediateOf[edge];
+                    if (intermediate >= 0) {
+                        edgeOfIntermediate[intermediate - numberOfVertices] = edge;
+                        sourceOfIntermediate[intermediate - numberOfVertices] = vertex;
+                        ownedByB[intermediate] = !ownedByB[vertex];
+                        priorities[intermediate] = priorities[vertex];
+                    }
+                }
+            }
+
+            final int colours = vertices.getMaxPriority();
+            estimation = new Evaluations(size, colours);
+            potentials = new Evaluations(numberOfEdges
+                    + numberOfIntermediates, colours);
+            inImprovementArena = new boolean[potentials.size()];
+            numberOfPotentials = new int[size];
+            changed = new int[size];
+            update = new Evaluations(size, colours);
+            evaluated = new boolean[size];
+            successorsLeft = new int[size];
+            bestValues = new Evaluations(size, colours);
+            hasZeroMove = new boolean[size];
+            stack = new int[size];
+            onStack = new boolean[size];
+            scratch = new Evaluations(1, colours);
+        }
+
+        /**
+         * @return whether <code>id</code> is the id of a vertex of the
+         *         subgame or of an intermediate vertex
+         */
+        private boolean isInGame(final int id) {
+            return id >= numberOfVertices || vertices.contains(id);
+        }
+
+        /**
+         * @return the id of the vertex or intermediate vertex the edge given
+         *         leads to
+         */
+        final int getTarget(final int edge) {
+            if (edge >= numberOfEdges) {
+                return successors[edgeOfIntermediate[edge - numberOfEdges]];
+            }
+            return intermediateOf[edge] >= 0 ? intermediateOf[edge]
+                    : successors[edge];
+        }
+
+        private void improve() {
+            start();
+            while (improveOnce()) {
+                // every iteration is done by improveOnce()
+            }
+        }
+
+        /**
+         * sets the default estimation and calculates the potentials for it.
+         */
+        final void start() {
+            setDefaultEstimation();
+            calculatePotentials();
+        }
+
+        /**
+         * adds the optimal update to the estimation.
+         * 
+         * @return whether this has improved the estimation, otherwise it is
+         *         optimal
+         */
+        final boolean improveOnce() {
+            calculateUpdate();
+            final boolean improved = isImprovement();
+            applyUpdate();
+            if (!improved) {
+                return false;
+            }
+            for (int index = 0; index < numberOfChanged; index++) {
+                recalculatePotentialsOf(changed[index]);
+            }
+            return true;
+        }
+
+        /**
+         * sets the estimation as <code>getDefaultEstimation()</code> in
+         * <code>StrategyImprovementAlgorithm</code> does.
+         */
+        private void setDefaultEstimation() {
+            for (int vertex = vertices.nextVertex(0); vertex >= 0; vertex = vertices
+                    .nextVertex(vertex + 1)) {
+                if (!ownedByB[vertex]) {
+                    continue;
+                }
+                boolean first = true;
+                for (int edge = successorOffsets[vertex]; edge < successorOffsets[vertex + 1]; edge++) {
+                    if (vertices.contains(successors[edge])) {
+                        setToMinimum(vertex, getTarget(edge), first);
+                        first = false;
+                    }
+                }
+            }
+            for (int id = numberOfVertices; id < size; id++) {
+                if (ownedByB[id]) {
+                    setToMinimum(id, getTarget(numberOfEdges + id
+                            - numberOfVertices), true);
+                }
+            }
+        }
+
+        /**
+         * sets the estimation of <code>id</code> to 0 plus the priority of
+         * <code>successor</code>, if this is less or <code>first</code> is
+         * set.
+         */
+        private void setToMinimum(final int id, final int successor,
+                final boolean first) {
+            scratch.setToZero(0);
+            scratch.addColour(0, priorities[successor]);
+            if (first || scratch.compare(0, estimation, id) < 0) {
+                estimation.set(id, scratch, 0);
+            }
+        }
+
+        private void calculatePotentials() {
+            for (int vertex = vertices.nextVertex(0); vertex >= 0; vertex = vertices
+                    .nextVertex(vertex + 1)) {
+                for (int edge = successorOffsets[vertex]; edge < successorOffsets[vertex + 1]; edge++) {
+                    if (vertices.contains(successors[edge])) {
+                        calculatePotential(edge, vertex);
+                    }
+                }
+            }
+            for (int id = numberOfVertices; id < size; id++) {
+                calculatePotential(numberOfEdges + id - numberOfVertices, id);
+            }
+        }
+
+        /**
+         * recalculates the potentials of the edges leaving and entering
+         * <code>id</code>.
+         */
+        private void recalculatePotentialsOf(final int id) {
+            if (id >= numberOfVertices) {
+                final int intermediate = id - numberOfVertices;
+                calculatePotential(numberOfEdges + intermediate, id);
+                calculatePotential(edgeOfIntermediate[intermediate],
+                        sourceOfIntermediate[intermediate]);
+                return;
+            }
+            for (int edge = successorOffsets[id]; edge < successorOffsets[id + 1]; edge++) {
+                if (vertices.contains(successors[edge])) {
+                    calculatePotential(edge, id);
+                }
+            }
+            for (int index = predecessorOffsets[id]; index < predecessorOffsets[id + 1]; index++) {
+                final int edge = predecessorEdges[index];
+                final int intermediate = intermediateOf[edge];
+                if (intermediate >= 0) {
+                    calculatePotential(numberOfEdges + intermediate
+                            - numberOfVertices, intermediate);
+                } else if (vertices.contains(predecessors[index])) {
+                    calculatePotential(edge, predecessors[index]);
+                }
+            }
+        }
+
+        private void calculatePotential(final int edge, final int source) {
+            if (inImprovementArena[edge]) {
+                numberOfPotentials[source]--;
+            }
+            final int target = getTarget(edge);
+            scratch.set(0, estimation, target);
+            scratch.addColour(0, priorities[target]);
+            inImprovementArena[edge] = estimation.compare(source, scratch, 0) <= 0;
+            if (inImprovementArena[edge]) {
+                potentials.set(edge, scratch, 0);
+                potentials.subtract(edge, estimation, source);
+                numberOfPotentials[source]++;
+            }
+        }
+
+        /**
+         * @return whether adding the update to the estimation increases it
+         *         as <code>Estimation.isLargerThan()</code> determines it
+         */
+        private boolean isImprovement() {
+            boolean hasLarger = false;
+            for (int id = 0; id < size; id++) {
+                if (estimation.isInfinity(id)) {
+                    continue;
+                }
+                final int signum = update.signum(id);
+                if (signum > 0) {
+                    hasLarger = true;
+                } else if (signum < 0) {
+                    return false;
+                }
+            }
+            return hasLarger;
+        }
+
+        /**
+         * adds the update to the estimation and collects the vertices whose
+         * estimation has changed.
+         */
+        private void applyUpdate() {
+            numberOfChanged = 0;
+            for (int id = 0; id < size; id++) {
+                if (!estimation.isInfinity(id) && update.signum(id) != 0) {
+                    estimation.add(id, update, id);
+                    changed[numberOfChanged++] = id;
+                }
+            }
+        }
+
+        /**
+         * calculates the optimal update as <code>loopBasicUpdateStep()</code>
+         * in <code>StrategyImprovementAlgorithm</code> does.
+         */
+        void calculateUpdate() {
+            startUpdate();
+            while (numberOfEvaluated < size) {
+                for (int id = 0; id < size; id++) {
+                    if (!evaluated[id] && successorsLeft[id] == 0) {
+                        push(id);
+                    }
+                }
+                if (stackSize == 0) {
+                    doCase4();
+                    continue;
+                }
+                while (stackSize > 0) {
+                    final int id = pop();
+                    if (evaluated[id]) {
+                        continue;
+                    }
+                    if (successorsLeft[id] == 0) {
+                        // case 1 for player B, case 3 for player A
+                        update.set(id, bestValues, id);
+                        evaluate(id);
+                    } else if (ownedByB[id] && hasZeroMove[id]) {
+                        // case 2
+                        update.setToZero(id);
+                        evaluate(id);
+                    }
+                }
+            }
+        }
+
+        /**
+         * resets what is kept per vertex for calculating the update, so only
+         * the vertices outside of the subgame are evaluated.
+         */
+        final void startUpdate() {
+            numberOfEvaluated = 0;
+            for (int id = 0; id < size; id++) {
+                // vertices outside of the subgame are never evaluated
+                evaluated[id] = !isInGame(id);
+                if (evaluated[id]) {
+                    numberOfEvaluated++;
+                }
+            }
+            System.arraycopy(numberOfPotentials, 0, successorsLeft, 0, size);
+            Arrays.fill(hasZeroMove, false);
+            for (int id = 0; id < size; id++) {
+                if (ownedByB[id]) {
+                    bestValues.setToInfinity(id);
+                } else {
+                    bestValues.setToZero(id);
+                }
+            }
+        }
+
+        /**
+         * evaluates the vertex of player B with the least best value and all
+         * vertices not evaluated yet from which it can be reached with the
+         * same value.
+         */
+        private void doCase4() {
+            int minimal = -1;
+            for (int id = 0; id < size; id++) {
+                if (!evaluated[id]
+                        && ownedByB[id]
+                        && (minimal < 0 || bestValues.compare(id, bestValues,
+                                minimal) < 0)) {
+                    minimal = id;
+                }
+            }
+            if (minimal < 0) {
+                throw new IllegalStateException(
+                        "No vertex of player B is left to evaluate.");
+            }
+            update.set(minimal, bestValues, minimal);
+            evaluate(minimal);
+            while (stackSize > 0) {
+                final int id = pop();
+                if (!evaluated[id]) {
+                    update.set(id, update, minimal);
+                    evaluate(id);
+                }
+            }
+        }
+
+        /**
+         * marks the vertex given as evaluated, updates what is kept for its
+         * predecessors and pushes those not evaluated yet.
+         */
+        private void evaluate(final int id) {
+            evaluated[id] = true;
+            numberOfEvaluated++;
+            if (id >= numberOfVertices) {
+                final int intermediate = id - numberOfVertices;
+                evaluatePredecessor(id, sourceOfIntermediate[intermediate],
+                        edgeOfIntermediate[intermediate]);
+                return;
+            }
+            for (int index = predecessorOffsets[id]; index < predecessorOffsets[id + 1]; index++) {
+                final int edge = predecessorEdges[index];
+                final int intermediate = intermediateOf[edge];
+                if (intermediate >= 0) {
+                    evaluatePredecessor(id, intermediate, numberOfEdges
+                            + intermediate - numberOfVertices);
+                } else {
+                    evaluatePredecessor(id, predecessors[index], edge);
+                }
+            }
+        }
+
+        /**
+         * updates what is kept for <code>predecessor</code>, now that
+         * <code>id</code>, which it reaches by <code>edge</code>, is
+         * evaluated, and pushes it, if it is not evaluated yet.
+         */
+        private void evaluatePredecessor(final int id, final int predecessor,
+                final int edge) {
+            if (evaluated[predecessor]) {
+                return;
+            }
+            if (inImprovementArena[edge]) {
+                scratch.set(0, update, id);
+                scratch.add(0, potentials, edge);
+                if (ownedByB[predecessor]) {
+                    if (scratch.compare(0, bestValues, predecessor) < 0) {
+                        bestValues.set(predecessor, scratch, 0);
+                    }
+                    if (potentials.signum(edge) == 0 && update.signum(id) == 0) {
+                        hasZeroMove[predecessor] = true;
+                    }
+                } else if (successorsLeft[predecessor] == numberOfPotentials[predecessor]
+                        || scratch.compare(0, bestValues, predecessor) > 0) {
+                    bestValues.set(predecessor, scratch, 0);
+                }
+                successorsLeft[predecessor]--;
+            }
+            push(predecessor);
+        }
+
+        private void push(final int id) {
+            if (!onStack[id]) {
+                onStack[id] = true;
+                stack[stackSize++] = id;
+            }
+        }
+
+        private int pop() {
+            final int id = stack[--stackSize];
+            onStack[id] = false;
+            return id;
+        }
+    }
+}
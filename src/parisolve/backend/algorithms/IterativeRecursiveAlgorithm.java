@@ -0,0 +1,166 @@
+package parisolve.backend.algorithms;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import parisolve.backend.Player;
+import parisolve.backend.algorithms.helper.IndexedSolution;
+import parisolve.backend.algorithms.helper.Subgame;
+
+/**
+ * the algorithm of <code>IndexedRecursiveAlgorithm</code> without recursion.
+ * Instead of the thread's stack, the state of every call is kept in a
+ * <code>Frame</code> on a stack on the heap, so the depth of the recursion is
+ * not limited by the size of the thread's stack.
+ *
+ * The second recursive call, on the vertices not attracted to the dominion of
+ * sigma's opponent, is the last thing a call does. Its solution only needs to
+ * be extended by this dominion. Therefore, no frame is pushed for it: the
+ * current frame removes the dominion from its subgame in place, remembers it
+ * as won by the opponent and starts over. Only the first recursive call, on
+ * the vertices not attracted to the vertices of maximal priority, pushes a
+ * frame. As this call is on fewer priorities, there are never more frames on
+ * the stack than there are priorities, no matter how often the second call is
+ * repeated, as for example on the arenas of <code>ChainArenaGenerator</code>.
+ *
+ * @see IndexedRecursiveAlgorithm
+ */
+public class IterativeRecursiveAlgorithm extends IndexedRecursiveAlgorithm {
+    /**
+     * the state of a call of <code>solveGame()</code>.
+     */
+    private static final class Frame {
+        /**
+         * the subgame to solve. This is G in Abbildung 15.5 and is reduced by
+         * the dominions of sigma's opponent found.
+         */
+        private final Subgame vertices;
+        /**
+         * the dominions removed from <code>vertices</code> so far for each
+         * player or <code>null</code> if there are none.
+         */
+        private Subgame winningRegionOfA;
+        private Subgame winningRegionOfB;
+        private Player sigma;
+        /**
+         * N in Abbildung 15.5, which is only set while the first recursive
+         * call is being solved.
+         */
+        private Subgame verticesWithMaxPriority;
+
+        private Frame(final Subgame vertices) {
+            this.vertices = vertices;
+        }
+
+        private void addDominion(final Subgame dominion, final Player player) {
+            if (player == Player.A) {
+                if (winningRegionOfA == null) {
+                    winningRegionOfA = dominion;
+                } else {
+                    winningRegionOfA.addAll(dominion);
+                }
+            } else {
+                if (winningRegionOfB == null) {
+                    winningRegionOfB = dominion;
+                } else {
+                    winningRegionOfB.addAll(dominion);
+                }
+            }
+        }
+
+        /**
+         * @return the solution of the original subgame of this frame, given
+         *         the winning region of <code>winner</code> in what is left
+         *         of it
+         */
+        private IndexedSolution getSolution(final Subgame winningRegion,
+                final Player winner, final int[] strategy) {
+            final Subgame winningRegionOfWinner = winningRegion;
+            final Subgame winningRegionOfLoser = vertices
+                    .minus(winningRegionOfWinner);
+            final Subgame dominionOfWinner = winner == Player.A ? winningRegionOfA
+                    : winningRegionOfB;
+            final Subgame dominionOfLoser = winner == Player.A ? winningRegionOfB
+                    : winningRegionOfA;
+            if (dominionOfWinner != null) {
+                winningRegionOfWinner.addAll(dominionOfWinner);
+            }
+            if (dominionOfLoser != null) {
+                winningRegionOfLoser.addAll(dominionOfLoser);
+            }
+            return new IndexedSolution(winningRegionOfWinner,
+                    winningRegionOfLoser, winner, strategy);
+        }
+    }
+
+    /**
+     * solves the subgame given as <code>IndexedRecursiveAlgorithm</code> does,
+     * but using a stack of <code>Frame</code>s instead of recursion.
+     *
+     * @param subgame
+     *            the subgame to solve. It is modified while solving.
+     * @return a partition with a set of vertices for each player to win upon.
+     */
+    @Override
+    protected IndexedSolution solveGame(final Subgame subgame) {
+        final Deque<Frame> stack = new ArrayDeque<>();
+        stack.push(new Frame(subgame));
+        // the solution of the frame popped last
+        IndexedSolution solution = null;
+        while (!stack.isEmpty()) {
+            final Frame frame = stack.peek();
+            final Subgame vertices = frame.vertices;
+            if (frame.verticesWithMaxPriority != null) {
+                // the first recursive call has returned
+                final Player sigma = frame.sigma;
+                final Subgame winningRegionOfOpponent = solution
+                        .getWinningRegionFor(sigma.getOponent());
+                if (winningRegionOfOpponent.isEmpty()) {
+                    // sigma wins all vertices in G\N' and therefore all in G
+                    addArbitraryStrategyForSigmaOnVertices(sigma,
+                            frame.verticesWithMaxPriority, vertices);
+                    stack.pop();
+                    solution = frame.getSolution(vertices.copy(), sigma,
+                            strategy);
+                    continue;
+                }
+                frame.verticesWithMaxPriority = null;
+                // in Abbildung 15.5 dominionOfSigmaOpponent is N''
+                final Subgame dominionOfSigmaOpponent = getAttractor(
+                        winningRegionOfOpponent, sigma.getOponent(), vertices);
+                // instead of the second recursive call, the frame continues
+                // on G\N''
+                vertices.removeAll(dominionOfSigmaOpponent);
+                frame.addDominion(dominionOfSigmaOpponent, sigma.getOponent());
+            }
+
+            if (vertices.isEmpty()) {
+                stack.pop();
+                solution = frame.getSolution(vertices.copy(), Player.A,
+                        strategy);
+                continue;
+            }
+            // in Abbildung 15.5 this is n
+            final int maxPriority = vertices.getMaxPriority();
+            final Player sigma = Player.getPlayerForPriority(maxPriority);
+            if (maxPriority == vertices.getMinPriority()) {
+                addArbitraryStrategyForSigmaOnVertices(sigma, vertices,
+                        vertices);
+                stack.pop();
+                solution = frame.getSolution(vertices.copy(), sigma, strategy);
+                continue;
+            }
+
+            frame.sigma = sigma;
+            // in Abbildung 15.5 verticesWithMaxPriority is N
+            frame.verticesWithMaxPriority = vertices
+                    .getVerticesWithPriority(maxPriority);
+            // in Abbildung 15.5 attractorOfMaxPrio is N'
+            final Subgame attractorOfMaxPrio = getAttractor(
+                    frame.verticesWithMaxPriority, sigma, vertices);
+            // the first recursive call, whose solution is W'
+            stack.push(new Frame(vertices.minus(attractorOfMaxPrio)));
+        }
+        return solution;
+    }
+}
@@ -0,0 +1,172 @@
+package parisolve.backend.algorithms;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import parisolve.backend.CompactArena;
+import parisolve.backend.Player;
+import parisolve.backend.algorithms.helper.IndexedAttractorCalculator;
+import parisolve.backend.algorithms.helper.IndexedSolution;
+import parisolve.backend.algorithms.helper.Subgame;
+
+/**
+ * parallel version of <code>IndexedRecursiveAlgorithm</code>. If a subgame
+ * falls apart into several components which are not connected by any edge,
+ * these components are independent parity games. They are then solved as
+ * <code>ForkJoinTask</code>s in parallel and their solutions are united.
+ *
+ * Within one component the two recursive calls of Zielonka's algorithm
+ * depend on each other, as the second one is on the vertices not attracted to
+ * the winning region of the first one. They are therefore solved one after the
+ * other. However, removing attractors tends to cut subgames into pieces, so
+ * the recursive calls themselves are split into components again.
+ *
+ * Searching for components costs a linear pass over the subgame. Subgames
+ * with fewer vertices than <code>cutoff</code> are therefore solved
+ * sequentially.
+ *
+ * The strategy array is shared by all tasks, as they work on disjoint
+ * subgames. Attractors are calculated by one
+ * <code>IndexedAttractorCalculator</code> per thread.
+ */
+public class ParallelRecursiveAlgorithm extends IndexedRecursiveAlgorithm {
+    /**
+     * the default for <code>cutoff</code>.
+     */
+    public static final int DEFAULT_CUTOFF = 1000;
+
+    private final int parallelism;
+    private final int cutoff;
+    private ThreadLocal<IndexedAttractorCalculator> attractorCalculators;
+
+    /**
+     * creates an instance using as many threads as processors are available
+     * to the JVM. In order to measure the speedup for different numbers of
+     * cores, the JVM can be restricted by
+     * <code>-XX:ActiveProcessorCount</code>.
+     */
+    public ParallelRecursiveAlgorithm() {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_CUTOFF);
+    }
+
+    /**
+     * @param parallelism
+     *            the number of threads to solve with
+     * @param cutoff
+     *            the number of vertices below which subgames are solved
+     *            sequentially
+     */
+    public ParallelRecursiveAlgorithm(final int parallelism, final int cutoff) {
+        this.parallelism = parallelism;
+        this.cutoff = cutoff;
+    }
+
+    @Override
+    public IndexedSolution getIndexedSolution(final Subgame vertices) {
+        final CompactArena compactArena = vertices.getArena();
+        attractorCalculators = ThreadLocal
+                .withInitial(() -> new IndexedAttractorCalculator(compactArena));
+        final ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return pool.invoke(ForkJoinTask
+                    .adapt(() -> ParallelRecursiveAlgorithm.super
+                            .getIndexedSolution(vertices)));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Override
+    protected IndexedSolution solveGame(final Subgame vertices) {
+        if (vertices.cardinality() < cutoff) {
+            return super.solveGame(vertices);
+        }
+        final List<Subgame> subgames = getIndependentSubgames(vertices);
+        if (subgames.size() == 1) {
+            return super.solveGame(vertices);
+        }
+
+        final List<ForkJoinTask<IndexedSolution>> tasks = new ArrayList<>();
+        for (final Subgame subgame : subgames) {
+            tasks.add(ForkJoinTask.adapt(() -> solveGame(subgame)));
+        }
+        ForkJoinTask.invokeAll(tasks);
+
+        final Subgame winningRegionOfA = new Subgame(arena);
+        final Subgame winningRegionOfB = new Subgame(arena);
+        for (final ForkJoinTask<IndexedSolution> task : tasks) {
+            final IndexedSolution solution = task.join();
+            winningRegionOfA.addAll(solution.getWinningRegionFor(Player.A));
+            winningRegionOfB.addAll(solution.getWinningRegionFor(Player.B));
+        }
+        return new IndexedSolution(winningRegionOfA, winningRegionOfB,
+                Player.A, strategy);
+    }
+
+    @Override
+    protected Subgame getAttractor(final Subgame vertices, final Player sigma,
+            final Subgame subgame) {
+        return attractorCalculators.get().getAttractor(vertices, sigma,
+                subgame, strategy);
+    }
+
+    /**
+     * partitions <code>vertices</code> into its weakly connected components,
+     * i.e. the sets of vertices connected by edges of the subgame regardless
+     * of their direction. Components smaller than <code>cutoff</code> are
+     * grouped together, so the number of tasks stays bounded even if a
+     * subgame consists of many tiny components.
+     *
+     * @param vertices
+     *            the subgame to partition
+     * @return subgames of <code>vertices</code> which are not connected with
+     *         each other
+     */
+    protected final List<Subgame> getIndependentSubgames(final Subgame vertices) {
+        final int[] successorOffsets = arena.getSuccessorOffsets();
+        final int[] successors = arena.getSuccessorTargets();
+        final int[] predecessorOffsets = arena.getPredecessorOffsets();
+        final int[] predecessors = arena.getPredecessorTargets();
+        final Subgame unvisited = vertices.copy();
+        final int[] queue = new int[vertices.cardinality()];
+        final List<Subgame> subgames = new ArrayList<>();
+        Subgame currentSubgame = new Subgame(arena);
+        int verticesInCurrentSubgame = 0;
+        for (int start = unvisited.nextVertex(0); start >= 0; start = unvisited
+                .nextVertex(start + 1)) {
+            if (verticesInCurrentSubgame >= cutoff) {
+                subgames.add(currentSubgame);
+                currentSubgame = new Subgame(arena);
+                verticesInCurrentSubgame = 0;
+            }
+            final Subgame component = currentSubgame;
+            component.add(start);
+            unvisited.remove(start);
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = start;
+            while (head < tail) {
+                final int vertex = queue[head++];
+                for (int index = successorOffsets[vertex]; index < successorOffsets[vertex + 1]; index++) {
+                    if (unvisited.contains(successors[index])) {
+                        unvisited.remove(successors[index]);
+                        component.add(successors[index]);
+                        queue[tail++] = successors[index];
+                    }
+                }
+                for (int index = predecessorOffsets[vertex]; index < predecessorOffsets[vertex + 1]; index++) {
+                    if (unvisited.contains(predecessors[index])) {
+                        unvisited.remove(predecessors[index]);
+                        component.add(predecessors[index]);
+                        queue[tail++] = predecessors[index];
+                    }
+                }
+            }
+            verticesInCurrentSubgame += tail;
+        }
+        subgames.add(currentSubgame);
+        return subgames;
+    }
+}
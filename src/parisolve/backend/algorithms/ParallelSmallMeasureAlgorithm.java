@@ -0,0 +1,331 @@
+package parisolve.backend.algorithms;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountedCompleter;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import parisolve.backend.CompactArena;
+import parisolve.backend.ParityVertex;
+import parisolve.backend.Player;
+import parisolve.backend.algorithms.helper.IndexedSolution;
+import parisolve.backend.algorithms.helper.LiftableFactory;
+import parisolve.backend.algorithms.helper.MeasureValue;
+import parisolve.backend.algorithms.helper.PackedMeasureEncoding;
+import parisolve.backend.algorithms.helper.Solution;
+import parisolve.backend.algorithms.helper.Subgame;
+
+/**
+ * parallel version of <code>SmallMeasureAlgorithm</code>. The least game
+ * progress measure is the least fixpoint of the lifting operators, no matter
+ * in which order vertices are lifted. Vertices can therefore be lifted by
+ * several threads concurrently, as long as every vertex whose successor has
+ * been lifted is lifted again later on.
+ *
+ * Values are packed into a <code>long</code> per vertex by
+ * <code>PackedMeasureEncoding</code> and kept in an
+ * <code>AtomicLongArray</code>. A lift reads the values of the successors,
+ * calculates prog and stores it by compare-and-set, retrying if another thread
+ * has lifted the vertex in the meantime. As values only increase, a value read
+ * once is a lower bound of the value in the fixpoint.
+ *
+ * Each <code>LiftTask</code> keeps a worklist of the vertices it is going to
+ * lift and adds the predecessors of every vertex it has lifted. If the
+ * worklist grows beyond <code>2 * chunkSize</code>, <code>chunkSize</code>
+ * vertices are split off into a new task. These tasks are kept in the
+ * work-stealing deques of the <code>ForkJoinPool</code>, so idle threads take
+ * over work from busy ones. A vertex is only put on a worklist if it is not on
+ * one already, which is tracked by <code>queued</code>. Its flag is cleared
+ * before its successors are read, so a lift of a successor after that puts it
+ * on a worklist again.
+ *
+ * The strategy of <code>sigma</code> on its winning region is taken from the
+ * final measure, as in Jurdzinski - Small progress measures for solving parity
+ * games (2000): every vertex of <code>sigma</code> moves to a successor with
+ * the least value. No strategy is produced for <code>sigma</code>'s opponent.
+ *
+ * If the values do not fit into a <code>long</code>, the game is solved by
+ * <code>SmallMeasureAlgorithm</code> instead, which produces no strategy at
+ * all.
+ */
+public class ParallelSmallMeasureAlgorithm implements IndexedSolver {
+    /**
+     * the default for <code>chunkSize</code>.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 256;
+
+    private final int parallelism;
+    private final int chunkSize;
+
+    /**
+     * creates an instance using as many threads as processors are available
+     * to the JVM.
+     */
+    public ParallelSmallMeasureAlgorithm() {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param parallelism
+     *            the number of threads to lift with
+     * @param chunkSize
+     *            the number of vertices split off a worklist at once
+     */
+    public ParallelSmallMeasureAlgorithm(final int parallelism,
+            final int chunkSize) {
+        this.parallelism = parallelism;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public IndexedSolution getIndexedSolution(final Subgame vertices) {
+        final CompactArena arena = vertices.getArena();
+        // is this the best choice?
+        final Player sigma = Player.getPlayerForPriority(vertices
+                .getMaxPriority());
+        final int[] sizeOfMG = getSizeOfMG(vertices, sigma);
+        if (!PackedMeasureEncoding.fits(sigma, sizeOfMG)) {
+            return solveSequentially(vertices);
+        }
+        final Lifting lifting = new Lifting(vertices, sigma,
+                new PackedMeasureEncoding(sigma, sizeOfMG,
+                        vertices.cardinality()), chunkSize);
+        final ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(lifting.getInitialTask());
+        } finally {
+            pool.shutdown();
+        }
+
+        final Subgame winningRegionOfA = new Subgame(arena);
+        final Subgame winningRegionOfB = new Subgame(arena);
+        final int[] strategy = new int[arena.size()];
+        Arrays.fill(strategy, IndexedSolution.NO_SUCCESSOR);
+        for (int vertex = vertices.nextVertex(0); vertex >= 0; vertex = vertices
+                .nextVertex(vertex + 1)) {
+            if ((Player.B == sigma) == lifting.isTop(vertex)) {
+                winningRegionOfA.add(vertex);
+            } else {
+                winningRegionOfB.add(vertex);
+            }
+            if (!lifting.isTop(vertex) && arena.getPlayer(vertex) == sigma) {
+                strategy[vertex] = lifting.getLeastSuccessor(vertex);
+            }
+        }
+        return new IndexedSolution(winningRegionOfA, winningRegionOfB,
+                Player.A, strategy);
+    }
+
+    /**
+     * determines the size of M_G as <code>ProgressMeasure.getSizeOfMG()</code>
+     * does.
+     */
+    private static int[] getSizeOfMG(final Subgame vertices, final Player sigma) {
+        final CompactArena arena = vertices.getArena();
+        final int[] counts = new int[vertices.getMaxPriority() + 1];
+        for (int vertex = vertices.nextVertex(0); vertex >= 0; vertex = vertices
+                .nextVertex(vertex + 1)) {
+            final int priority = arena.getPriority(vertex);
+            if (MeasureValue.valueMustBeGreater(priority, sigma)) {
+                counts[priority]++;
+            }
+        }
+        return counts;
+    }
+
+    private static IndexedSolution solveSequentially(final Subgame vertices) {
+        final CompactArena arena = vertices.getArena();
+        final Set<ParityVertex> vertexSet = new HashSet<>();
+        for (int vertex = vertices.nextVertex(0); vertex >= 0; vertex = vertices
+                .nextVertex(vertex + 1)) {
+            vertexSet.add(arena.getVertex(vertex));
+        }
+        final Solution solution = SmallMeasureAlgorithm.solveGame(
+                vertexSet.size(), vertexSet, new LiftableFactory(vertexSet));
+        final Subgame winningRegionOfA = new Subgame(arena);
+        for (final ParityVertex vertex : solution
+                .getWinningRegionFor(Player.A)) {
+            winningRegionOfA.add(arena.getId(vertex));
+        }
+        final int[] strategy = new int[arena.size()];
+        Arrays.fill(strategy, IndexedSolution.NO_SUCCESSOR);
+        return new IndexedSolution(winningRegionOfA,
+                vertices.minus(winningRegionOfA), Player.A, strategy);
+    }
+
+    /**
+     * the state shared by all <code>LiftTask</code>s of one run.
+     */
+    private static final class Lifting {
+        private final Subgame vertices;
+        private final int chunkSize;
+        private final PackedMeasureEncoding encoding;
+        private final int[] successorOffsets;
+        private final int[] successors;
+        private final int[] predecessorOffsets;
+        private final int[] predecessors;
+        private final int[] priorities;
+        /**
+         * whether prog is the maximum (<code>true</code>) or the minimum (
+         * <code>false</code>) of the values of the successors.
+         */
+        private final boolean[] searchForMax;
+        private final AtomicLongArray values;
+        /**
+         * 1 for every vertex which is on a worklist and not being lifted yet,
+         * 0 otherwise.
+         */
+        private final AtomicIntegerArray queued;
+
+        private Lifting(final Subgame vertices, final Player sigma,
+                final PackedMeasureEncoding encoding, final int chunkSize) {
+            final CompactArena arena = vertices.getArena();
+            this.vertices = vertices;
+            this.chunkSize = chunkSize;
+            this.encoding = encoding;
+            successorOffsets = arena.getSuccessorOffsets();
+            successors = arena.getSuccessorTargets();
+            predecessorOffsets = arena.getPredecessorOffsets();
+            predecessors = arena.getPredecessorTargets();
+            priorities = new int[arena.size()];
+            searchForMax = new boolean[arena.size()];
+            values = new AtomicLongArray(arena.size());
+            queued = new AtomicIntegerArray(arena.size());
+            for (int vertex = vertices.nextVertex(0); vertex >= 0; vertex = vertices
+                    .nextVertex(vertex + 1)) {
+                priorities[vertex] = arena.getPriority(vertex);
+                searchForMax[vertex] = arena.getPlayer(vertex) == sigma
+                        .getOponent();
+                queued.set(vertex, 1);
+            }
+        }
+
+        private LiftTask getInitialTask() {
+            final int[] worklist = new int[vertices.cardinality()];
+            int size = 0;
+            for (int vertex = vertices.nextVertex(0); vertex >= 0; vertex = vertices
+                    .nextVertex(vertex + 1)) {
+                worklist[size++] = vertex;
+            }
+            return new LiftTask(null, this, worklist, size);
+        }
+
+        private boolean isTop(final int vertex) {
+            return values.get(vertex) == PackedMeasureEncoding.TOP;
+        }
+
+        /**
+         * @return the successor of <code>vertex</code> with the least value
+         */
+        private int getLeastSuccessor(final int vertex) {
+            int least = IndexedSolution.NO_SUCCESSOR;
+            for (int index = successorOffsets[vertex]; index < successorOffsets[vertex + 1]; index++) {
+                final int successor = successors[index];
+                if (vertices.contains(successor)
+                        && (least == IndexedSolution.NO_SUCCESSOR || values
+                                .get(successor) < values.get(least))) {
+                    least = successor;
+                }
+            }
+            return least;
+        }
+
+        /**
+         * lifts <code>vertex</code> as in Definition 7.22 of LNCS 2500.
+         *
+         * @return whether this has changed the value of <code>vertex</code>
+         */
+        private boolean lift(final int vertex) {
+            final boolean max = searchForMax[vertex];
+            long best = max ? 0 : PackedMeasureEncoding.TOP;
+            for (int index = successorOffsets[vertex]; index < successorOffsets[vertex + 1]; index++) {
+                final int successor = successors[index];
+                if (!vertices.contains(successor)) {
+                    continue;
+                }
+                final long value = values.get(successor);
+                if (max ? value > best : value < best) {
+                    best = value;
+                }
+            }
+            // prog is monotone in the value of the successor, so it only
+            // needs to be calculated for the best one
+            final long prog = encoding.getProgValue(best, priorities[vertex]);
+            long current = values.get(vertex);
+            while (prog > current) {
+                if (values.compareAndSet(vertex, current, prog)) {
+                    return true;
+                }
+                current = values.get(vertex);
+            }
+            return false;
+        }
+    }
+
+    /**
+     * lifts the vertices of its worklist until it is empty, splitting off
+     * parts of it into new tasks, if it grows too large.
+     */
+    private static final class LiftTask extends CountedCompleter<Void> {
+        private static final long serialVersionUID = 1L;
+
+        private final Lifting lifting;
+        private int[] worklist;
+        private int size;
+
+        private LiftTask(final CountedCompleter<?> completer,
+                final Lifting lifting, final int[] worklist, final int size) {
+            super(completer);
+            this.lifting = lifting;
+            this.worklist = worklist;
+            this.size = size;
+        }
+
+        @Override
+        public void compute() {
+            final int chunkSize = lifting.chunkSize;
+            while (size > 0) {
+                while (size > 2 * chunkSize) {
+                    splitOff();
+                }
+                final int vertex = worklist[--size];
+                lifting.queued.set(vertex, 0);
+                if (lifting.lift(vertex)) {
+                    addPredecessors(vertex);
+                }
+            }
+            tryComplete();
+        }
+
+        private void addPredecessors(final int vertex) {
+            for (int index = lifting.predecessorOffsets[vertex]; index < lifting.predecessorOffsets[vertex + 1]; index++) {
+                final int predecessor = lifting.predecessors[index];
+                if (lifting.vertices.contains(predecessor)
+                        && !lifting.isTop(predecessor)
+                        && lifting.queued.compareAndSet(predecessor, 0, 1)) {
+                    if (size == worklist.length) {
+                        worklist = Arrays.copyOf(worklist,
+                                Math.max(2 * size, lifting.chunkSize));
+                    }
+                    worklist[size++] = predecessor;
+                }
+            }
+        }
+
+        /**
+         * moves the last <code>chunkSize</code> vertices of the worklist into
+         * a new task, which idle threads can steal.
+         */
+        private void splitOff() {
+            final int chunkSize = lifting.chunkSize;
+            final int[] chunk = Arrays.copyOfRange(worklist, size - chunkSize,
+                    size);
+            size -= chunkSize;
+            addToPendingCount(1);
+            new LiftTask(this, lifting, chunk, chunkSize).fork();
+        }
+    }
+}
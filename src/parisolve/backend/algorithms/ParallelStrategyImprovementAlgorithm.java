@@ -0,0 +1,286 @@
+package parisolve.backend.algorithms;
+
+import java.util.OptionalInt;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+
+import parisolve.backend.algorithms.helper.Evaluations;
+import parisolve.backend.algorithms.helper.IndexedSolution;
+import parisolve.backend.algorithms.helper.Subgame;
+
+/**
+ * parallel version of <code>IndexedStrategyImprovementAlgorithm</code>. The
+ * optimal update is calculated in phases like Dijkstra's algorithm, in which
+ * every vertex of the current frontier is looked at independently.
+ *
+ * Within a phase of cases 1 to 3, the frontier consists of the vertices
+ * evaluated in the phase before. Their predecessors not evaluated yet are
+ * claimed by an <code>AtomicIntegerArray</code>, so each of them is looked at
+ * by a single thread. This thread pulls the updates of the successors
+ * evaluated in the phase before into what is kept for the predecessor and
+ * evaluates it, if this allows case 1, 2 or 3. As the minimum and the maximum
+ * do not depend on the order in which the successors are looked at, this
+ * gives the same update as the sequential basic update step. If no vertex can
+ * be evaluated by cases 1 to 3, the vertex of player B with the least best
+ * value is searched by a parallel reduction, which breaks ties in favour of
+ * the lowest id, and its value is spread to the vertices reaching it phase by
+ * phase.
+ *
+ * Frontiers with fewer vertices than <code>cutoff</code> are looked at
+ * sequentially. The phases run in a <code>ForkJoinPool</code> of
+ * <code>parallelism</code> threads.
+ */
+public class ParallelStrategyImprovementAlgorithm extends
+        IndexedStrategyImprovementAlgorithm {
+    /**
+     * the default for <code>cutoff</code>.
+     */
+    public static final int DEFAULT_CUTOFF = 1000;
+
+    private final int parallelism;
+    private final int cutoff;
+
+    /**
+     * creates an instance using as many threads as processors are available
+     * to the JVM.
+     */
+    public ParallelStrategyImprovementAlgorithm() {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_CUTOFF);
+    }
+
+    /**
+     * @param parallelism
+     *            the number of threads to calculate the update with
+     * @param cutoff
+     *            the number of vertices of a frontier below which they are
+     *            looked at sequentially
+     */
+    public ParallelStrategyImprovementAlgorithm(final int parallelism,
+            final int cutoff) {
+        this.parallelism = parallelism;
+        this.cutoff = cutoff;
+    }
+
+    @Override
+    public IndexedSolution getIndexedSolution(final Subgame vertices) {
+        final ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return pool.invoke(ForkJoinTask
+                    .adapt(() -> ParallelStrategyImprovementAlgorithm.super
+                            .getIndexedSolution(vertices)));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Override
+    Improvement createImprovement(final Subgame vertices) {
+        return new ParallelImprovement(vertices, cutoff);
+    }
+
+    /**
+     * the state of a single run of the algorithm, which calculates the update
+     * phase by phase.
+     */
+    private static final class ParallelImprovement extends Improvement {
+        private final int cutoff;
+        /**
+         * the number of the phase in which each vertex has been evaluated.
+         */
+        private final int[] evaluatedInPhase;
+        private int phase;
+        /**
+         * the number of the last phase which has claimed each vertex.
+         */
+        private final AtomicIntegerArray claimed;
+        private int claim;
+        private final ThreadLocal<Evaluations> scratches;
+
+        private ParallelImprovement(final Subgame vertices, final int cutoff) {
+            super(vertices);
+            this.cutoff = cutoff;
+            evaluatedInPhase = new int[size];
+            claimed = new AtomicIntegerArray(size);
+            final int colours = vertices.getMaxPriority();
+            scratches = ThreadLocal.withInitial(() -> new Evaluations(1,
+                    colours));
+        }
+
+        @Override
+        void calculateUpdate() {
+            startUpdate();
+            while (numberOfEvaluated < size) {
+                int[] frontier = stream(size).filter(
+                        id -> !evaluated[id] && successorsLeft[id] == 0)
+                        .toArray();
+                if (frontier.length == 0) {
+                    doCase4();
+                    continue;
+                }
+                // case 1 for player B, case 3 for player A
+                stream(frontier).forEach(
+                        id -> update.set(id, bestValues, id));
+                while (frontier.length > 0) {
+                    markEvaluated(frontier);
+                    frontier = stream(getUnevaluatedPredecessors(frontier))
+                            .filter(this::evaluateIfPossible).toArray();
+                }
+            }
+        }
+
+        /**
+         * evaluates the vertex of player B with the least best value and all
+         * vertices not evaluated yet from which it can be reached with the
+         * same value.
+         */
+        private void doCase4() {
+            final OptionalInt minimal = stream(size)
+                    .filter(id -> !evaluated[id] && ownedByB[id])
+                    .reduce((id, other) -> bestValues.compare(other,
+                            bestValues, id) < 0 ? other : id);
+            if (!minimal.isPresent()) {
+                throw new IllegalStateException(
+                        "No vertex of player B is left to evaluate.");
+            }
+            final int id = minimal.getAsInt();
+            update.set(id, bestValues, id);
+            int[] frontier = { id };
+            while (frontier.length > 0) {
+                markEvaluated(frontier);
+                frontier = getUnevaluatedPredecessors(frontier);
+                stream(frontier).forEach(
+                        predecessor -> update.set(predecessor, update, id));
+            }
+        }
+
+        /**
+         * marks the vertices of <code>frontier</code> as evaluated in a new
+         * phase.
+         */
+        private void markEvaluated(final int[] frontier) {
+            phase++;
+            stream(frontier).forEach(id -> {
+                evaluated[id] = true;
+                evaluatedInPhase[id] = phase;
+            });
+            numberOfEvaluated += frontier.length;
+        }
+
+        /**
+         * @return the predecessors of the vertices of <code>frontier</code>
+         *         not evaluated yet, each once
+         */
+        private int[] getUnevaluatedPredecessors(final int[] frontier) {
+            claim++;
+            return stream(frontier).flatMap(this::claimPredecessors).toArray();
+        }
+
+        /**
+         * @return the predecessors of <code>id</code> not evaluated yet which
+         *         have not been claimed in the current phase
+         */
+        private IntStream claimPredecessors(final int id) {
+            final IntStream.Builder builder = IntStream.builder();
+            if (id >= numberOfVertices) {
+                claimIfUnevaluated(sourceOfIntermediate[id - numberOfVertices],
+                        builder);
+                return builder.build();
+            }
+            for (int index = predecessorOffsets[id]; index < predecessorOffsets[id + 1]; index++) {
+                final int intermediate = intermediateOf[predecessorEdges[index]];
+                claimIfUnevaluated(intermediate >= 0 ? intermediate
+                        : predecessors[index], builder);
+            }
+            return builder.build();
+        }
+
+        private void claimIfUnevaluated(final int id,
+                final IntStream.Builder builder) {
+            // vertices outside of the subgame are evaluated from the start
+            if (!evaluated[id] && claimed.getAndSet(id, claim) != claim) {
+                builder.add(id);
+            }
+        }
+
+        /**
+         * updates what is kept for <code>id</code> by its successors
+         * evaluated in the current phase and evaluates it, if this allows
+         * case 1, 2 or 3.
+         *
+         * @return whether <code>id</code> has been evaluated
+         */
+        private boolean evaluateIfPossible(final int id) {
+            final Evaluations scratch = scratches.get();
+            if (id >= numberOfVertices) {
+                pullFromSuccessor(id, numberOfEdges + id - numberOfVertices,
+                        scratch);
+            } else {
+                for (int edge = successorOffsets[id]; edge < successorOffsets[id + 1]; edge++) {
+                    if (vertices.contains(successors[edge])) {
+                        pullFromSuccessor(id, edge, scratch);
+                    }
+                }
+            }
+            if (successorsLeft[id] == 0) {
+                // case 1 for player B, case 3 for player A
+                update.set(id, bestValues, id);
+                return true;
+            }
+            if (ownedByB[id] && hasZeroMove[id]) {
+                // case 2
+                update.setToZero(id);
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * updates what is kept for <code>id</code> as
+         * <code>evaluatePredecessor()</code> does, if the target of
+         * <code>edge</code> has been evaluated in the current phase.
+         */
+        private void pullFromSuccessor(final int id, final int edge,
+                final Evaluations scratch) {
+            final int successor = getTarget(edge);
+            if (!inImprovementArena[edge]
+                    || evaluatedInPhase[successor] != phase) {
+                return;
+            }
+            scratch.set(0, update, successor);
+            scratch.add(0, potentials, edge);
+            if (ownedByB[id]) {
+                if (scratch.compare(0, bestValues, id) < 0) {
+                    bestValues.set(id, scratch, 0);
+                }
+                if (potentials.signum(edge) == 0
+                        && update.signum(successor) == 0) {
+                    hasZeroMove[id] = true;
+                }
+            } else if (successorsLeft[id] == numberOfPotentials[id]
+                    || scratch.compare(0, bestValues, id) > 0) {
+                bestValues.set(id, scratch, 0);
+            }
+            successorsLeft[id]--;
+        }
+
+        /**
+         * @return the ids from 0 to <code>end</code>, in parallel if there
+         *         are at least <code>cutoff</code> of them
+         */
+        private IntStream stream(final int end) {
+            final IntStream ids = IntStream.range(0, end);
+            return end < cutoff ? ids : ids.parallel();
+        }
+
+        /**
+         * @return the ids given, in parallel if there are at least
+         *         <code>cutoff</code> of them
+         */
+        private IntStream stream(final int[] ids) {
+            final IntStream stream = IntStream.of(ids);
+            return ids.length < cutoff ? stream : stream.parallel();
+        }
+    }
+}
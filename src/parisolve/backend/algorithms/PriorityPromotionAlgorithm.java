@@ -0,0 +1,264 @@
+package parisolve.backend.algorithms;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import parisolve.backend.Arena;
+import parisolve.backend.ParityVertex;
+import parisolve.backend.Player;
+import parisolve.backend.algorithms.helper.AttractorCalculator;
+import parisolve.backend.algorithms.helper.AttractorStrategyPair;
+import parisolve.backend.algorithms.helper.LiftableFactory;
+import parisolve.backend.algorithms.helper.Solution;
+
+/**
+ * implementation of the priority promotion algorithm of Benerecetti,
+ * Dell'Erba and Mogavero - Solving Parity Games via Priority Promotion (2016).
+ *
+ * The algorithm searches for a dominion, removes its attractor from the game
+ * and starts over on the rest. To find a dominion, every vertex is assigned a
+ * region priority, which initially is its own priority. Going down from the
+ * maximal priority p, the region of p is the attractor of the player sigma of
+ * p to the vertices with region priority p in the subgame of the vertices
+ * with region priority at most p. If sigma's opponent can leave this region
+ * within the subgame or sigma cannot stay in it, the next lower region
+ * priority is looked at. Otherwise, the opponent can only escape to regions of
+ * higher priority. If there is no such escape, the region is a dominion of
+ * sigma. If there is, the region is promoted to the lowest priority the
+ * opponent can escape to, i.e. merged with this region, and all regions below
+ * this priority are reset.
+ *
+ * Sigma's strategy is built along: vertices attracted to a region move
+ * towards the vertices of region priority p, and vertices of sigma with
+ * region priority p that have not been attracted move to any vertex of the
+ * region. Promoted vertices keep the strategy of their former region.
+ *
+ * As a variant in the spirit of PP+ from Benerecetti, Dell'Erba and Mogavero -
+ * Improving Priority Promotion for Parity Games (2016), a promotion can reset
+ * only the regions of sigma's opponent below the priority promoted to. The
+ * regions of sigma are kept, as they are recalculated from their former
+ * vertices when their priority is looked at again, which saves work if the
+ * promotion does not affect them.
+ */
+public class PriorityPromotionAlgorithm implements Solver {
+    /**
+     * whether a promotion resets only the regions of the opponent of the
+     * player of the promoted region.
+     */
+    private final boolean resetOnlyOpponentRegions;
+
+    /**
+     * liftable factory provided for a single run of the algorithm which knows
+     * the predecessors.
+     */
+    protected LiftableFactory liftable;
+
+    /**
+     * creates an instance resetting all regions below the priority promoted
+     * to.
+     */
+    public PriorityPromotionAlgorithm() {
+        this(false);
+    }
+
+    /**
+     * @param resetOnlyOpponentRegions
+     *            whether a promotion of a region of sigma resets only the
+     *            regions of sigma's opponent below the priority promoted to
+     */
+    public PriorityPromotionAlgorithm(final boolean resetOnlyOpponentRegions) {
+        this.resetOnlyOpponentRegions = resetOnlyOpponentRegions;
+    }
+
+    @Override
+    public Solution getSolution(final Arena arena) {
+        final Set<ParityVertex> remaining = arena.getVertices();
+        liftable = new LiftableFactory(remaining);
+        final Set<ParityVertex> winningRegionOfA = new HashSet<>();
+        final Set<ParityVertex> winningRegionOfB = new HashSet<>();
+        final Map<ParityVertex, ParityVertex> strategy = new ConcurrentHashMap<>();
+
+        while (!remaining.isEmpty()) {
+            final Dominion dominion = searchDominion(remaining);
+            strategy.putAll(dominion.strategy);
+            final AttractorStrategyPair attractor = AttractorCalculator
+                    .getAttractor(dominion.vertices, dominion.player,
+                            remaining, liftable);
+            strategy.putAll(attractor.getStrategy());
+            if (dominion.player == Player.A) {
+                winningRegionOfA.addAll(attractor.getAttractor());
+            } else {
+                winningRegionOfB.addAll(attractor.getAttractor());
+            }
+            remaining.removeAll(attractor.getAttractor());
+        }
+        return new Solution(winningRegionOfA, winningRegionOfB, Player.A,
+                strategy);
+    }
+
+    /**
+     * a dominion of <code>player</code> together with a strategy of
+     * <code>player</code> to stay in it and win.
+     */
+    protected static final class Dominion {
+        private final Set<ParityVertex> vertices;
+        private final Player player;
+        private final Map<ParityVertex, ParityVertex> strategy;
+
+        private Dominion(final Set<ParityVertex> vertices, final Player player,
+                final Map<ParityVertex, ParityVertex> strategy) {
+            this.vertices = vertices;
+            this.player = player;
+            this.strategy = strategy;
+        }
+    }
+
+    /**
+     * searches a dominion in the subgame given, as described above.
+     *
+     * @param subgame
+     *            the vertices to search a dominion in
+     * @return a dominion of one of the players
+     */
+    protected final Dominion searchDominion(final Set<ParityVertex> subgame) {
+        // the region priority of each vertex
+        final Map<ParityVertex, Integer> regionOf = new HashMap<>();
+        // the vertices of each region priority
+        final TreeMap<Integer, Set<ParityVertex>> regions = new TreeMap<>();
+        // the strategy of the player of the region of each vertex
+        final Map<ParityVertex, ParityVertex> regionStrategy = new HashMap<>();
+        for (final ParityVertex vertex : subgame) {
+            moveToRegion(vertex, vertex.getPriority(), regionOf, regions);
+        }
+
+        int priority = regions.lastKey();
+        while (true) {
+            final Player sigma = Player.getPlayerForPriority(priority);
+            final Set<ParityVertex> lowerGame = new HashSet<>();
+            for (final Set<ParityVertex> region : regions.headMap(priority,
+                    true).values()) {
+                lowerGame.addAll(region);
+            }
+            final AttractorStrategyPair attractor = AttractorCalculator
+                    .getAttractor(regions.get(priority), sigma, lowerGame,
+                            liftable);
+            final Set<ParityVertex> region = attractor.getAttractor();
+            for (final ParityVertex vertex : region) {
+                moveToRegion(vertex, priority, regionOf, regions);
+            }
+            regionStrategy.putAll(attractor.getStrategy());
+
+            if (!isClosed(region, sigma, lowerGame, regionStrategy)) {
+                priority = regions.lowerKey(priority);
+                continue;
+            }
+
+            final int escape = getLowestEscape(region, sigma, regionOf,
+                    priority);
+            if (escape == Integer.MAX_VALUE) {
+                final Map<ParityVertex, ParityVertex> strategy = new HashMap<>();
+                for (final ParityVertex vertex : region) {
+                    if (vertex.getPlayer() == sigma) {
+                        strategy.put(vertex, regionStrategy.get(vertex));
+                    }
+                }
+                return new Dominion(region, sigma, strategy);
+            }
+
+            // promote the region and reset the regions below
+            for (final ParityVertex vertex : region) {
+                moveToRegion(vertex, escape, regionOf, regions);
+            }
+            final List<ParityVertex> verticesToReset = new ArrayList<>();
+            for (final Map.Entry<Integer, Set<ParityVertex>> lowerRegion : regions
+                    .headMap(escape).entrySet()) {
+                if (!resetOnlyOpponentRegions
+                        || Player.getPlayerForPriority(lowerRegion.getKey()) != sigma) {
+                    verticesToReset.addAll(lowerRegion.getValue());
+                }
+            }
+            for (final ParityVertex vertex : verticesToReset) {
+                moveToRegion(vertex, vertex.getPriority(), regionOf, regions);
+                regionStrategy.remove(vertex);
+            }
+            priority = escape;
+        }
+    }
+
+    private static void moveToRegion(final ParityVertex vertex,
+            final int priority, final Map<ParityVertex, Integer> regionOf,
+            final TreeMap<Integer, Set<ParityVertex>> regions) {
+        final Integer oldPriority = regionOf.put(vertex, priority);
+        if (oldPriority != null && oldPriority != priority) {
+            final Set<ParityVertex> oldRegion = regions.get(oldPriority);
+            oldRegion.remove(vertex);
+            if (oldRegion.isEmpty()) {
+                regions.remove(oldPriority);
+            }
+        }
+        regions.computeIfAbsent(priority, key -> new HashSet<>()).add(vertex);
+    }
+
+    /**
+     * determines whether <code>sigma</code> can keep every play in
+     * <code>region</code> within <code>lowerGame</code>. Vertices of
+     * <code>sigma</code> without a strategy in <code>region</code> are given
+     * one if possible.
+     */
+    private static boolean isClosed(final Set<ParityVertex> region,
+            final Player sigma, final Set<ParityVertex> lowerGame,
+            final Map<ParityVertex, ParityVertex> regionStrategy) {
+        for (final ParityVertex vertex : region) {
+            if (vertex.getPlayer() == sigma) {
+                final ParityVertex strategySuccessor = regionStrategy
+                        .get(vertex);
+                if (strategySuccessor == null
+                        || !region.contains(strategySuccessor)) {
+                    final ParityVertex successor = vertex
+                            .getSuccessorFromSet(region);
+                    if (successor == null) {
+                        return false;
+                    }
+                    regionStrategy.put(vertex, successor);
+                }
+            } else {
+                for (final ParityVertex successor : vertex.getSuccessors()) {
+                    if (lowerGame.contains(successor)
+                            && !region.contains(successor)) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the lowest region priority above <code>priority</code> to which
+     *         sigma's opponent can escape from <code>region</code> or
+     *         <code>Integer.MAX_VALUE</code> if there is none
+     */
+    private static int getLowestEscape(final Set<ParityVertex> region,
+            final Player sigma, final Map<ParityVertex, Integer> regionOf,
+            final int priority) {
+        int escape = Integer.MAX_VALUE;
+        for (final ParityVertex vertex : region) {
+            if (vertex.getPlayer() == sigma) {
+                continue;
+            }
+            for (final ParityVertex successor : vertex.getSuccessors()) {
+                final Integer regionOfSuccessor = regionOf.get(successor);
+                if (regionOfSuccessor != null && regionOfSuccessor > priority) {
+                    escape = Math.min(escape, regionOfSuccessor);
+                }
+            }
+        }
+        return escape;
+    }
+}
@@ -0,0 +1,207 @@
+package parisolve.backend.algorithms;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import parisolve.backend.Arena;
+import parisolve.backend.ParityVertex;
+import parisolve.backend.Player;
+import parisolve.backend.algorithms.helper.AttractorStrategyPair;
+import parisolve.backend.algorithms.helper.Solution;
+
+/**
+ * implementation of the quasi-polynomial variant of the recursive algorithm
+ * given in Parys - Parity Games: Zielonka's Algorithm in Quasi-Polynomial
+ * Time (2019).
+ *
+ * As in <code>RecursiveAlgorithm</code>, the dominions of sigma's opponent
+ * are found by solving the game without the attractor of the vertices of
+ * maximal priority and are removed until there are none left. Additionally,
+ * every call carries a precision for each player. A call does not need to
+ * solve its subgame, but only has to find every dominion of sigma's opponent
+ * with at most as many vertices as the opponent's precision. As at most one
+ * such dominion can be larger than half of the precision, all recursive calls
+ * but one get the opponent's precision halved: first, dominions are removed
+ * with the halved precision until none is found, then a single call with the
+ * full precision is made, and finally dominions are removed with the halved
+ * precision again. The number of recursive calls thus only grows
+ * quasi-polynomially instead of exponentially, as it does for example on the
+ * arenas of <code>HardArenaGenerator</code>.
+ *
+ * Starting with the number of vertices as the precision of both players, the
+ * result of the outermost call is the solution of the game.
+ */
+public class QuasiPolynomialRecursiveAlgorithm extends RecursiveAlgorithm {
+    @Override
+    protected Solution solveGame(final Set<ParityVertex> vertices) {
+        if (vertices.isEmpty()) {
+            return new Solution(EMPTY_SET, Player.A);
+        }
+        return solveGame(vertices, Arena.getMaxPriority(vertices),
+                vertices.size(), vertices.size());
+    }
+
+    /**
+     * solves the subgame on <code>vertices</code> up to the precisions given.
+     * The winning region of sigma, the player of <code>maxPriority</code>,
+     * which is returned, contains every dominion of sigma with at most as many
+     * vertices as sigma's precision and no dominion of sigma's opponent with
+     * at most as many vertices as the opponent's precision. If the precisions
+     * are at least the number of vertices, this is the solution of the
+     * subgame.
+     *
+     * @param vertices
+     *            the vertices to solve the game on. They are not modified.
+     * @param maxPriority
+     *            a bound of the priorities of <code>vertices</code>, which
+     *            determines sigma. There need not be a vertex of this
+     *            priority.
+     * @param precisionOfA
+     *            the precision of player A
+     * @param precisionOfB
+     *            the precision of player B
+     * @return a partition with a set of vertices for each player to win upon
+     */
+    protected Solution solveGame(final Set<ParityVertex> vertices,
+            final int maxPriority, final int precisionOfA,
+            final int precisionOfB) {
+        if (vertices.isEmpty()) {
+            return new Solution(EMPTY_SET, Player.A);
+        }
+        final Player sigma = Player.getPlayerForPriority(maxPriority);
+        // no dominion has more vertices than the subgame
+        final int precisionOfOpponent = Math.min(vertices.size(),
+                sigma == Player.A ? precisionOfB : precisionOfA);
+        if (precisionOfOpponent == 0) {
+            // there is no dominion of the opponent to be found
+            return new Solution(new HashSet<>(vertices), sigma);
+        }
+        final int minPriority = vertices.stream()
+                .mapToInt(ParityVertex::getPriority).min()
+                .orElse(Integer.MAX_VALUE);
+        if (minPriority == Arena.getMaxPriority(vertices)) {
+            return new Solution(new HashSet<>(vertices),
+                    Player.getPlayerForPriority(minPriority));
+        }
+
+        final Set<ParityVertex> verticesWinnableForSigma = new HashSet<>(
+                vertices);
+        final Set<ParityVertex> winningRegionOfSigmaOpponent = new HashSet<>();
+        final Map<ParityVertex, ParityVertex> strategy = new ConcurrentHashMap<>();
+        final int fullPrecisionOfA = sigma == Player.A ? precisionOfA
+                : precisionOfOpponent;
+        final int fullPrecisionOfB = sigma == Player.B ? precisionOfB
+                : precisionOfOpponent;
+        final int halvedPrecisionOfA = sigma == Player.A ? precisionOfA
+                : precisionOfOpponent / 2;
+        final int halvedPrecisionOfB = sigma == Player.B ? precisionOfB
+                : precisionOfOpponent / 2;
+
+        // the dominions of sigma's opponent of up to half the precision
+        while (removeDominionOfSigmaOpponent(verticesWinnableForSigma,
+                maxPriority, sigma, halvedPrecisionOfA, halvedPrecisionOfB,
+                winningRegionOfSigmaOpponent, strategy)) {
+            // repeat until no dominion is left
+        }
+        // a single dominion of up to the full precision, unless the halved
+        // precision already covers all vertices left
+        if (precisionOfOpponent / 2 < verticesWinnableForSigma.size()
+                && removeDominionOfSigmaOpponent(verticesWinnableForSigma,
+                        maxPriority, sigma, fullPrecisionOfA,
+                        fullPrecisionOfB, winningRegionOfSigmaOpponent,
+                        strategy)) {
+            // the dominions of up to half the precision again
+            while (removeDominionOfSigmaOpponent(verticesWinnableForSigma,
+                    maxPriority, sigma, halvedPrecisionOfA,
+                    halvedPrecisionOfB, winningRegionOfSigmaOpponent, strategy)) {
+                // repeat until no dominion is left
+            }
+        }
+        return new Solution(verticesWinnableForSigma,
+                winningRegionOfSigmaOpponent, sigma, strategy);
+    }
+
+    /**
+     * searches a dominion of sigma's opponent as
+     * <code>getDominionOfSigmaOpponent()</code> does in
+     * <code>RecursiveAlgorithm</code>, but solving the game without the
+     * attractor of the vertices of maximal priority only up to the precisions
+     * given. If the dominion is not empty, its attractor is moved from
+     * <code>verticesWinnableForSigma</code> to
+     * <code>winningRegionOfSigmaOpponent</code>. Otherwise, sigma's strategy
+     * on <code>verticesWinnableForSigma</code> is set.
+     *
+     * @return whether a non-empty dominion has been found
+     */
+    private boolean removeDominionOfSigmaOpponent(
+            final Set<ParityVertex> verticesWinnableForSigma,
+            final int maxPriority, final Player sigma, final int precisionOfA,
+            final int precisionOfB,
+            final Set<ParityVertex> winningRegionOfSigmaOpponent,
+            final Map<ParityVertex, ParityVertex> strategy) {
+        // in Abbildung 15.5 verticesWithMaxPriority is N
+        final Set<ParityVertex> verticesWithMaxPriority = verticesWinnableForSigma
+                .stream()
+                .filter(vertex -> vertex.getPriority() == maxPriority)
+                .collect(Collectors.toSet());
+        // in Abbildung 15.5 attractorOfMaxPrio is N'
+        final AttractorStrategyPair attractorOfMaxPrio = getAttractor(
+                verticesWithMaxPriority, sigma, verticesWinnableForSigma);
+        final Set<ParityVertex> verticesWithoutMaxPrio = new HashSet<>(
+                verticesWinnableForSigma);
+        verticesWithoutMaxPrio.removeAll(attractorOfMaxPrio.getAttractor());
+        // in Abbildung 15.5 partition is W'
+        final Solution solutionWithoutMaxPrio = solveGame(
+                verticesWithoutMaxPrio, maxPriority - 1, precisionOfA,
+                precisionOfB);
+        final Set<ParityVertex> winningRegionWithoutMaxPrio = solutionWithoutMaxPrio
+                .getWinningRegionFor(sigma.getOponent());
+
+        if (winningRegionWithoutMaxPrio.isEmpty()) {
+            putStrategyOnVertices(solutionWithoutMaxPrio.getStrategy(),
+                    verticesWithoutMaxPrio, strategy);
+            putStrategyOnVertices(attractorOfMaxPrio.getStrategy(),
+                    attractorOfMaxPrio.getAttractor(), strategy);
+            for (final ParityVertex vertex : verticesWithMaxPriority) {
+                strategy.remove(vertex);
+            }
+            addArbitraryStrategyForSigmaOnVertices(sigma,
+                    verticesWinnableForSigma, strategy);
+            return false;
+        }
+
+        // in Abbildung 15.5 dominionOfSigmaOpponent is N''
+        final AttractorStrategyPair dominionOfSigmaOpponent = getAttractor(
+                winningRegionWithoutMaxPrio, sigma.getOponent(),
+                verticesWinnableForSigma);
+        putStrategyOnVertices(solutionWithoutMaxPrio.getStrategy(),
+                winningRegionWithoutMaxPrio, strategy);
+        putStrategyOnVertices(dominionOfSigmaOpponent.getStrategy(),
+                dominionOfSigmaOpponent.getAttractor(), strategy);
+        verticesWinnableForSigma.removeAll(dominionOfSigmaOpponent
+                .getAttractor());
+        winningRegionOfSigmaOpponent.addAll(dominionOfSigmaOpponent
+                .getAttractor());
+        return true;
+    }
+
+    /**
+     * puts the moves of <code>source</code> from <code>vertices</code> into
+     * <code>strategy</code>, so moves calculated for vertices that have been
+     * solved differently later on are replaced.
+     */
+    private static void putStrategyOnVertices(
+            final Map<ParityVertex, ParityVertex> source,
+            final Set<ParityVertex> vertices,
+            final Map<ParityVertex, ParityVertex> strategy) {
+        for (final Map.Entry<ParityVertex, ParityVertex> move : source
+                .entrySet()) {
+            if (vertices.contains(move.getKey())) {
+                strategy.put(move.getKey(), move.getValue());
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package parisolve.backend.algorithms;
+
+import java.util.Set;
+
+import parisolve.backend.Arena;
+import parisolve.backend.ParityVertex;
+import parisolve.backend.Player;
+import parisolve.backend.algorithms.helper.Liftable;
+import parisolve.backend.algorithms.helper.LiftableFactory;
+import parisolve.backend.algorithms.helper.Solution;
+import parisolve.backend.algorithms.helper.SuccinctProgressMeasure;
+
+/**
+ * implementation of the quasi-polynomial algorithm of Jurdzinski and Lazic -
+ * Succinct progress measures for solving parity games (2017). It lifts as
+ * <code>SmallMeasureAlgorithm</code> does, but on the succinct progress
+ * measure of <code>SuccinctProgressMeasure</code>, whose values are tuples of
+ * binary strings of logarithmic total length.
+ */
+public class SuccinctMeasureAlgorithm implements Solver {
+
+    @Override
+    public final Solution getSolution(final Arena arena) {
+        final Set<ParityVertex> vertices = arena.getVertices();
+        final LiftableFactory liftable = new LiftableFactory(vertices);
+        final Player sigma = Player.getPlayerForPriority(Arena
+                .getMaxPriority(vertices));
+        return solveGame(vertices, sigma, liftable);
+    }
+
+    /**
+     * calculates the winning regions using a succinct progress measure from
+     * the perspective of <code>sigma</code>.
+     *
+     * @param vertices
+     *            the vertices to consider when solving the game
+     * @param sigma
+     *            the player from who's perspective the progress measure is
+     *            built
+     * @param liftable
+     *            a liftable factory which has the arena's vertices stored and
+     *            can be queried for a liftable instance
+     * @return the winning regions
+     */
+    public static Solution solveGame(final Set<ParityVertex> vertices,
+            final Player sigma, final LiftableFactory liftable) {
+        final SuccinctProgressMeasure measure = new SuccinctProgressMeasure(
+                vertices, sigma);
+
+        final Liftable iterator = liftable.getLiftableInstance(vertices, false);
+        for (final ParityVertex vertex : iterator) {
+            if (measure.lift(vertex)) {
+                iterator.liftWasSuccessful(vertex);
+            }
+        }
+
+        return measure.getSolution();
+    }
+}
@@ -0,0 +1,244 @@
+package parisolve.backend.algorithms;
+
+import java.util.Arrays;
+
+import parisolve.backend.CompactArena;
+import parisolve.backend.Player;
+import parisolve.backend.algorithms.helper.IndexedAttractorCalculator;
+import parisolve.backend.algorithms.helper.IndexedSolution;
+import parisolve.backend.algorithms.helper.StronglyConnectectedComponentsFinder;
+import parisolve.backend.algorithms.helper.Subgame;
+import parisolve.backend.algorithms.helper.Tangle;
+import parisolve.backend.algorithms.helper.Tangles;
+
+/**
+ * implementation of tangle learning as described in van Dijk - Attracting
+ * Tangles to Solve Parity Games (2018).
+ *
+ * The game is decomposed top-down as in <code>IndexedRecursiveAlgorithm</code>:
+ * the region of the maximal priority p is the attractor of the player sigma of
+ * p to the vertices of priority p, after which the next region is searched in
+ * the rest of the game. Attractors are tangle attractors, which attract a
+ * tangle of sigma as a whole once all its escapes have been attracted.
+ *
+ * In each region, the bottom strongly connected components of the graph in
+ * which sigma plays the attractor strategy are tangles: every cycle in them
+ * either passes through a vertex of priority p or stays in a tangle of sigma
+ * attracted. A tangle without escapes in the game is a dominion of sigma. Its
+ * attractor is solved and the search starts over. Otherwise, the tangles found
+ * are learned and the decomposition is repeated. As every decomposition learns
+ * a new tangle, the search terminates.
+ *
+ * @see Tangle
+ */
+public class TangleLearningAlgorithm implements IndexedSolver {
+    private CompactArena arena;
+    private IndexedAttractorCalculator attractorCalculator;
+    private int[] strategy;
+    private Tangles tangles;
+    /**
+     * marks the vertices of the component looked at with
+     * <code>currentMark</code>, so no set has to be allocated per component.
+     */
+    private int[] componentMarks;
+    /**
+     * marks the escapes of the component looked at with
+     * <code>currentMark</code>.
+     */
+    private int[] escapeMarks;
+    private int currentMark;
+
+    @Override
+    public IndexedSolution getIndexedSolution(final Subgame vertices) {
+        arena = vertices.getArena();
+        attractorCalculator = new IndexedAttractorCalculator(arena);
+        strategy = new int[arena.size()];
+        Arrays.fill(strategy, IndexedSolution.NO_SUCCESSOR);
+        tangles = new Tangles(arena);
+        componentMarks = new int[arena.size()];
+        escapeMarks = new int[arena.size()];
+        currentMark = 0;
+
+        final Subgame remaining = vertices.copy();
+        final Subgame winningRegionOfA = new Subgame(arena);
+        final Subgame winningRegionOfB = new Subgame(arena);
+        while (!remaining.isEmpty()) {
+            final IndexedSolution dominionSolution = searchDominion(remaining);
+            final Player winner = dominionSolution.getWinningRegionFor(
+                    Player.A).isEmpty() ? Player.B : Player.A;
+            final Subgame dominion = dominionSolution
+                    .getWinningRegionFor(winner);
+            final Subgame attractor = attractorCalculator.getAttractor(
+                    dominion, winner, remaining, strategy, tangles);
+            if (winner == Player.A) {
+                winningRegionOfA.addAll(attractor);
+            } else {
+                winningRegionOfB.addAll(attractor);
+            }
+            remaining.removeAll(attractor);
+            tangles.removeIntersecting(attractor);
+        }
+        return new IndexedSolution(winningRegionOfA, winningRegionOfB,
+                Player.A, strategy);
+    }
+
+    /**
+     * decomposes <code>game</code> and learns tangles until a dominion is
+     * found.
+     *
+     * @param game
+     *            the vertices not solved yet
+     * @return a dominion in <code>game</code> as the winning region of the
+     *         player it belongs to, for whose vertices <code>strategy</code>
+     *         has been set
+     */
+    private IndexedSolution searchDominion(final Subgame game) {
+        while (true) {
+            final int tanglesBefore = tangles.size();
+            final Subgame subgame = game.copy();
+            while (!subgame.isEmpty()) {
+                final int maxPriority = subgame.getMaxPriority();
+                final Player sigma = Player.getPlayerForPriority(maxPriority);
+                final Subgame verticesWithMaxPriority = subgame
+                        .getVerticesWithPriority(maxPriority);
+                final Subgame region = attractorCalculator.getAttractor(
+                        verticesWithMaxPriority, sigma, subgame, strategy,
+                        tangles);
+                chooseSuccessorsInRegion(verticesWithMaxPriority, sigma,
+                        region);
+
+                for (final int[] component : StronglyConnectectedComponentsFinder
+                        .getStronglyConnectedComponents(region, sigma,
+                                strategy)) {
+                    markComponent(component);
+                    if (!isBottomCycle(component, sigma, subgame)) {
+                        continue;
+                    }
+                    final int[] escapes = getEscapes(component, sigma, game);
+                    if (escapes.length == 0) {
+                        final Subgame dominion = new Subgame(arena);
+                        for (final int vertex : component) {
+                            dominion.add(vertex);
+                        }
+                        return new IndexedSolution(dominion, new Subgame(
+                                arena), sigma, strategy);
+                    }
+                    final int[] tangleStrategy = new int[component.length];
+                    for (int index = 0; index < component.length; index++) {
+                        tangleStrategy[index] = arena
+                                .getPlayer(component[index]) == sigma ? strategy[component[index]]
+                                : IndexedSolution.NO_SUCCESSOR;
+                    }
+                    tangles.add(new Tangle(sigma, component, tangleStrategy,
+                            escapes));
+                }
+                subgame.removeAll(region);
+            }
+            if (tangles.size() == tanglesBefore) {
+                throw new IllegalStateException(
+                        "neither a dominion nor a new tangle has been found");
+            }
+        }
+    }
+
+    /**
+     * lets the vertices of <code>sigma</code> with maximal priority, which
+     * have not been attracted, move to any successor in <code>region</code>
+     * or to none if there is no such successor.
+     */
+    private void chooseSuccessorsInRegion(final Subgame verticesWithMaxPriority,
+            final Player sigma, final Subgame region) {
+        final int[] successorOffsets = arena.getSuccessorOffsets();
+        final int[] successors = arena.getSuccessorTargets();
+        for (int vertex = verticesWithMaxPriority.nextVertex(0); vertex >= 0; vertex = verticesWithMaxPriority
+                .nextVertex(vertex + 1)) {
+            if (arena.getPlayer(vertex) != sigma) {
+                continue;
+            }
+            strategy[vertex] = IndexedSolution.NO_SUCCESSOR;
+            for (int index = successorOffsets[vertex]; index < successorOffsets[vertex + 1]; index++) {
+                if (region.contains(successors[index])) {
+                    strategy[vertex] = successors[index];
+                    break;
+                }
+            }
+        }
+    }
+
+    private void markComponent(final int[] component) {
+        if (currentMark == Integer.MAX_VALUE) {
+            Arrays.fill(componentMarks, 0);
+            Arrays.fill(escapeMarks, 0);
+            currentMark = 0;
+        }
+        currentMark++;
+        for (final int vertex : component) {
+            componentMarks[vertex] = currentMark;
+        }
+    }
+
+    private boolean isMarked(final int vertex) {
+        return vertex >= 0 && componentMarks[vertex] == currentMark;
+    }
+
+    /**
+     * determines whether <code>component</code>, which has to be marked, is a
+     * bottom strongly connected component containing a cycle, i.e. neither
+     * <code>sigma</code>'s strategy nor the opponent can leave it within
+     * <code>subgame</code>.
+     */
+    private boolean isBottomCycle(final int[] component, final Player sigma,
+            final Subgame subgame) {
+        final int[] successorOffsets = arena.getSuccessorOffsets();
+        final int[] successors = arena.getSuccessorTargets();
+        boolean hasCycle = component.length > 1;
+        for (final int vertex : component) {
+            if (arena.getPlayer(vertex) == sigma) {
+                if (!isMarked(strategy[vertex])) {
+                    return false;
+                }
+                hasCycle |= strategy[vertex] == vertex;
+                continue;
+            }
+            for (int index = successorOffsets[vertex]; index < successorOffsets[vertex + 1]; index++) {
+                final int successor = successors[index];
+                if (subgame.contains(successor) && !isMarked(successor)) {
+                    return false;
+                }
+                hasCycle |= successor == vertex;
+            }
+        }
+        return hasCycle;
+    }
+
+    /**
+     * @return the vertices of <code>game</code> outside of
+     *         <code>component</code>, which has to be marked, to which sigma's
+     *         opponent can move
+     */
+    private int[] getEscapes(final int[] component, final Player sigma,
+            final Subgame game) {
+        final int[] successorOffsets = arena.getSuccessorOffsets();
+        final int[] successors = arena.getSuccessorTargets();
+        int[] escapes = new int[0];
+        int numberOfEscapes = 0;
+        for (final int vertex : component) {
+            if (arena.getPlayer(vertex) == sigma) {
+                continue;
+            }
+            for (int index = successorOffsets[vertex]; index < successorOffsets[vertex + 1]; index++) {
+                final int successor = successors[index];
+                if (game.contains(successor) && !isMarked(successor)
+                        && escapeMarks[successor] != currentMark) {
+                    escapeMarks[successor] = currentMark;
+                    if (numberOfEscapes == escapes.length) {
+                        escapes = Arrays.copyOf(escapes,
+                                Math.max(4, 2 * numberOfEscapes));
+                    }
+                    escapes[numberOfEscapes++] = successor;
+                }
+            }
+        }
+        return Arrays.copyOf(escapes, numberOfEscapes);
+    }
+}
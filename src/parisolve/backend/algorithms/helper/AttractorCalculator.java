@@ -1,10 +1,16 @@
 package parisolve.backend.algorithms.helper;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import parisolve.backend.ParityVertex;
 import parisolve.backend.Player;
@@ -12,6 +18,18 @@ import parisolve.backend.Player;
 import com.google.common.collect.Sets;
 
 public class AttractorCalculator {
+    /**
+     * the default for <code>parallelThreshold</code>. Below this, the overhead
+     * of synchronising the threads outweighs the gain.
+     */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 10000;
+
+    /**
+     * subgames with at least this many vertices have their attractors
+     * calculated in parallel.
+     */
+    private static volatile int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+
     private AttractorCalculator() {
         // disable
     }
@@ -21,12 +39,23 @@ public class AttractorCalculator {
      * player <code>sigma</code>. That is, from the collection of vertices
      * returned, sigma can force every path into <code>vertices</code>.
      * 
+     * The attractor is built backwards from <code>vertices</code> using the
+     * predecessors known to <code>liftable</code>. Each vertex of
+     * <code>sigma</code>'s opponent keeps a counter of the successors through
+     * which it can still escape, which is initialised to its out-degree in the
+     * subgame and decremented whenever one of these successors is attracted.
+     * Once it reaches zero, the vertex is attracted itself. This way every
+     * edge is looked at a constant number of times, resulting in a running
+     * time in O(|V| + |E|) of the subgame.
+     * 
      * @param vertices
      *            the vertices to attract to
      * @param sigma
      *            the player to force
      * @param allVertices
      *            the vertices to consider
+     * @param liftable
+     *            factory which knows the predecessors of the vertices
      * @return the attractor of <code>sigma</code> to <code>vertices</code> with
      *         respect to the subgame on <code>allVertices</code>
      */
@@ -34,37 +63,135 @@ public class AttractorCalculator {
             final Collection<? extends ParityVertex> vertices,
             final Player sigma, final Set<ParityVertex> allVertices,
             final LiftableFactory liftable) {
+        if (allVertices.size() >= parallelThreshold) {
+            return getAttractorInParallel(vertices, sigma, allVertices,
+                    liftable);
+        }
         final Set<ParityVertex> attractor = new HashSet<>(vertices);
         final Map<ParityVertex, ParityVertex> strategy = new ConcurrentHashMap<>();
-        // the vertices which might get into the attractor eventually
-        final Set<ParityVertex> otherVertices = new HashSet<>(allVertices);
-        otherVertices.removeAll(attractor);
-        Liftable iterator = liftable.getLiftableInstance(otherVertices, true);
+        // the number of successors through which a vertex of sigma's opponent
+        // can still escape the attractor. Only vertices which have been
+        // encountered are stored.
+        final Map<ParityVertex, Integer> escapes = new HashMap<>();
+        // the attracted vertices whose predecessors still have to be checked
+        final Deque<ParityVertex> queue = new ArrayDeque<>(attractor);
 
-        for (final ParityVertex vertex : iterator) {
-            // getSuccessors returns all successor in the original graph.
-            // Therefore, we must remove everything outside of allVertices.
-            final Set<ParityVertex> successorsInSubGame = Sets.intersection(
-                    vertex.getSuccessors(), allVertices);
-            if (vertex.getPlayer() == sigma.getOponent()
-                    && attractor.containsAll(successorsInSubGame)) {
-                attractor.add(vertex);
-                iterator.liftWasSuccessful(vertex);
-            } else if (vertex.getPlayer() == sigma) {
-                for (final ParityVertex successor : successorsInSubGame) {
-                    if (attractor.contains(successor)) {
-                        attractor.add(vertex);
-                        iterator.liftWasSuccessful(vertex);
-                        strategy.put(vertex, successor);
-                        break;
+        while (!queue.isEmpty()) {
+            final ParityVertex vertex = queue.poll();
+            for (final ParityVertex predecessor : liftable
+                    .getPredecessorsOf(vertex)) {
+                if (!allVertices.contains(predecessor)
+                        || attractor.contains(predecessor)) {
+                    continue;
+                }
+                if (predecessor.getPlayer() == sigma) {
+                    strategy.put(predecessor, vertex);
+                } else {
+                    Integer remainingEscapes = escapes.get(predecessor);
+                    if (remainingEscapes == null) {
+                        // getSuccessors returns all successor in the original
+                        // graph. Therefore, we must only count those in
+                        // allVertices.
+                        remainingEscapes = Sets.intersection(
+                                predecessor.getSuccessors(), allVertices)
+                                .size();
+                    }
+                    remainingEscapes--;
+                    if (remainingEscapes > 0) {
+                        escapes.put(predecessor, remainingEscapes);
+                        continue;
                     }
                 }
+                attractor.add(predecessor);
+                queue.add(predecessor);
             }
         }
 
         return new AttractorStrategyPair(attractor, strategy);
     }
 
+    /**
+     * calculates the same attractor as
+     * <code>getAttractor(Collection, Player, Set, LiftableFactory)</code>,
+     * but level by level: the predecessors of all vertices attracted in the
+     * previous level are looked at in parallel and the vertices attracted by
+     * this are collected for the next level. The escape counters are atomic,
+     * so exactly one thread sees the counter of a vertex drop to zero and
+     * attracts it. Vertices of <code>sigma</code> are attracted by the thread
+     * which adds them first, which also determines their strategy.
+     * 
+     * The attractor is collected in a concurrent set, which does not accept
+     * <code>null</code> even in <code>contains()</code>. It is therefore
+     * copied into a <code>HashSet</code>, so callers get the same kind of set
+     * as from the sequential calculation.
+     * 
+     * @param vertices
+     *            the vertices to attract to
+     * @param sigma
+     *            the player to force
+     * @param allVertices
+     *            the vertices to consider
+     * @param liftable
+     *            factory which knows the predecessors of the vertices
+     * @return the attractor of <code>sigma</code> to <code>vertices</code> with
+     *         respect to the subgame on <code>allVertices</code>
+     */
+    protected static final AttractorStrategyPair getAttractorInParallel(
+            final Collection<? extends ParityVertex> vertices,
+            final Player sigma, final Set<ParityVertex> allVertices,
+            final LiftableFactory liftable) {
+        final Set<ParityVertex> attractor = ConcurrentHashMap.newKeySet();
+        attractor.addAll(vertices);
+        final Map<ParityVertex, ParityVertex> strategy = new ConcurrentHashMap<>();
+        final Map<ParityVertex, AtomicInteger> escapes = new ConcurrentHashMap<>();
+        Collection<ParityVertex> frontier = new ArrayList<>(attractor);
+
+        while (!frontier.isEmpty()) {
+            final Collection<ParityVertex> nextFrontier = new ConcurrentLinkedQueue<>();
+            frontier.parallelStream().forEach(vertex -> {
+                for (final ParityVertex predecessor : liftable
+                        .getPredecessorsOf(vertex)) {
+                    if (!allVertices.contains(predecessor)
+                            || attractor.contains(predecessor)) {
+                        continue;
+                    }
+                    if (predecessor.getPlayer() == sigma) {
+                        if (attractor.add(predecessor)) {
+                            strategy.put(predecessor, vertex);
+                            nextFrontier.add(predecessor);
+                        }
+                    } else if (escapes.computeIfAbsent(
+                            predecessor,
+                            key -> new AtomicInteger(Sets.intersection(
+                                    key.getSuccessors(), allVertices).size()))
+                            .decrementAndGet() == 0) {
+                        attractor.add(predecessor);
+                        nextFrontier.add(predecessor);
+                    }
+                }
+            });
+            frontier = nextFrontier;
+        }
+
+        return new AttractorStrategyPair(new HashSet<>(attractor), strategy);
+    }
+
+    public static int getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    /**
+     * sets the number of vertices from which on a subgame has its attractors
+     * calculated in parallel.
+     * 
+     * @param threshold
+     *            the minimal size of a subgame to use the parallel attractor
+     *            on. <code>Integer.MAX_VALUE</code> disables it.
+     */
+    public static void setParallelThreshold(final int threshold) {
+        parallelThreshold = threshold;
+    }
+
     /**
      * convenience method to not have to specify allVertices as a set
      * 
@@ -76,7 +203,7 @@ public class AttractorCalculator {
             final Collection<? extends ParityVertex> allVertices,
             final LiftableFactory liftable) {
         // TODO: one may want to revive the "getVertices()"-Method from arena.
-        return getAttractor(allVertices, sigma, Sets.newHashSet(allVertices),
+        return getAttractor(vertices, sigma, Sets.newHashSet(allVertices),
                 liftable);
     }
 }
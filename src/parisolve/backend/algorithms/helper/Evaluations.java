@@ -0,0 +1,164 @@
+package parisolve.backend.algorithms.helper;
+
+import java.util.Arrays;
+
+/**
+ * primitive store of many values of the type R = (C_0 → Z) ∪ ∞ represented
+ * by <code>Evaluation</code>. All values are kept in one contiguous
+ * <code>int[]</code>: the count of colour c of the value with index i is
+ * found at <code>i * colours + c - 1</code>, as colour 0 is not counted.
+ * Infinity is marked in a separate array.
+ *
+ * In contrast to <code>Evaluation</code>, values are changed in place and
+ * operations take the values to combine as indices into stores, so
+ * calculating with them neither allocates nor boxes.
+ *
+ * @see Evaluation
+ */
+public class Evaluations {
+    /**
+     * the number of colours counted, i.e. the maximal colour.
+     */
+    private final int colours;
+    private final int[] counts;
+    private final boolean[] infinite;
+
+    /**
+     * creates a store of <code>size</code> values, which are all 0.
+     *
+     * @param size
+     *            the number of values to store
+     * @param colours
+     *            the maximal colour to count
+     */
+    public Evaluations(final int size, final int colours) {
+        this.colours = colours;
+        counts = new int[size * colours];
+        infinite = new boolean[size];
+    }
+
+    public final int size() {
+        return infinite.length;
+    }
+
+    public final boolean isInfinity(final int index) {
+        return infinite[index];
+    }
+
+    public final void setToInfinity(final int index) {
+        infinite[index] = true;
+    }
+
+    public final void setToZero(final int index) {
+        infinite[index] = false;
+        Arrays.fill(counts, index * colours, (index + 1) * colours, 0);
+    }
+
+    /**
+     * sets the value with index <code>index</code> to the value with index
+     * <code>otherIndex</code> in <code>other</code>.
+     */
+    public final void set(final int index, final Evaluations other,
+            final int otherIndex) {
+        infinite[index] = other.infinite[otherIndex];
+        System.arraycopy(other.counts, otherIndex * colours, counts, index
+                * colours, colours);
+    }
+
+    /**
+     * oplus-operator as in <code>Evaluation.plus(int)</code>, applied in
+     * place.
+     */
+    public final void addColour(final int index, final int colour) {
+        if (infinite[index] || colour == 0) {
+            return;
+        }
+        counts[index * colours + colour - 1]++;
+    }
+
+    /**
+     * adds the value with index <code>otherIndex</code> in <code>other</code>
+     * in place, as <code>Evaluation.plus(Evaluation)</code> does.
+     */
+    public final void add(final int index, final Evaluations other,
+            final int otherIndex) {
+        if (infinite[index] || other.infinite[otherIndex]) {
+            infinite[index] = true;
+            return;
+        }
+        final int offset = index * colours;
+        final int otherOffset = otherIndex * colours;
+        for (int colour = 0; colour < colours; colour++) {
+            counts[offset + colour] += other.counts[otherOffset + colour];
+        }
+    }
+
+    /**
+     * subtracts the value with index <code>otherIndex</code> in
+     * <code>other</code> in place, as <code>Evaluation.minus()</code> does. In
+     * particular, infinity minus anything stays infinity and subtracting
+     * infinity subtracts nothing.
+     */
+    public final void subtract(final int index, final Evaluations other,
+            final int otherIndex) {
+        if (infinite[index] || other.infinite[otherIndex]) {
+            return;
+        }
+        final int offset = index * colours;
+        final int otherOffset = otherIndex * colours;
+        for (int colour = 0; colour < colours; colour++) {
+            counts[offset + colour] -= other.counts[otherOffset + colour];
+        }
+    }
+
+    /**
+     * compares two values as <code>Evaluation.compareTo()</code> does, i.e.
+     * from the highest colour down, with a higher count being better for
+     * even colours and worse for odd ones.
+     */
+    public final int compare(final int index, final Evaluations other,
+            final int otherIndex) {
+        if (infinite[index] || other.infinite[otherIndex]) {
+            return Boolean.compare(infinite[index], other.infinite[otherIndex]);
+        }
+        final int offset = index * colours;
+        final int otherOffset = otherIndex * colours;
+        for (int colour = colours; colour > 0; colour--) {
+            final int count = counts[offset + colour - 1];
+            final int otherCount = other.counts[otherOffset + colour - 1];
+            if (count != otherCount) {
+                return (count > otherCount) == (colour % 2 == 0) ? 1 : -1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * compares the value with index <code>index</code> to 0.
+     */
+    public final int signum(final int index) {
+        if (infinite[index]) {
+            return 1;
+        }
+        final int offset = index * colours;
+        for (int colour = colours; colour > 0; colour--) {
+            final int count = counts[offset + colour - 1];
+            if (count != 0) {
+                return (count > 0) == (colour % 2 == 0) ? 1 : -1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @return the value with index <code>index</code> as an
+     *         <code>Evaluation</code>
+     */
+    public final Evaluation get(final int index) {
+        if (infinite[index]) {
+            return Evaluation.INFINITY_EVALUTION;
+        }
+        return new Evaluation(Arrays.copyOfRange(counts, index * colours,
+                (index + 1) * colours));
+    }
+}
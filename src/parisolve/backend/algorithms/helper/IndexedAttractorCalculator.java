@@ -0,0 +1,233 @@
+package parisolve.backend.algorithms.helper;
+
+import java.util.Arrays;
+
+import parisolve.backend.CompactArena;
+import parisolve.backend.Player;
+
+/**
+ * counterpart of <code>AttractorCalculator</code> working on the ids of a
+ * <code>CompactArena</code>. Each vertex of <code>sigma</code>'s opponent
+ * keeps a counter of the successors through which it may still escape the
+ * attractor. The counter is decremented whenever one of these successors is
+ * attracted and the vertex is attracted itself once it reaches zero. As every
+ * edge of the subgame is looked at a constant number of times, the attractor
+ * is calculated in O(|V| + |E|) of the subgame.
+ *
+ * If <code>Tangles</code> are given, a tangle of <code>sigma</code> is
+ * attracted as a whole once all its escapes within the subgame have been
+ * attracted: the opponent can then either move into the attractor or stay in
+ * the tangle and lose. This is the tangle attractor of van Dijk - Attracting
+ * Tangles to Solve Parity Games (2018).
+ *
+ * An instance keeps scratch arrays of the size of the arena which are reused
+ * between calls. Therefore, an instance must not be used by several threads
+ * at once.
+ */
+public class IndexedAttractorCalculator {
+    private final CompactArena arena;
+    /**
+     * remaining number of escapes of the opponent's vertices. Only valid if
+     * the stamp of the vertex matches <code>currentStamp</code>, which saves
+     * resetting the counters between calls.
+     */
+    private final int[] escapes;
+    private final int[] stamps;
+    private int currentStamp = 0;
+    /**
+     * the vertices which have been attracted but whose predecessors have not
+     * been looked at yet.
+     */
+    private final int[] queue;
+    /**
+     * remaining number of escapes of the tangles, valid as for
+     * <code>escapes</code>. Grown when more tangles are learned.
+     */
+    private int[] tangleEscapes = new int[0];
+    private int[] tangleStamps = new int[0];
+
+    /**
+     * @param arena
+     *            the arena to calculate attractors in
+     */
+    public IndexedAttractorCalculator(final CompactArena arena) {
+        this.arena = arena;
+        escapes = new int[arena.size()];
+        stamps = new int[arena.size()];
+        queue = new int[arena.size()];
+    }
+
+    /**
+     * calculates the attractor of a given set of vertices with respect to
+     * player <code>sigma</code>. That is, from the vertices returned, sigma
+     * can force every path into <code>vertices</code>.
+     *
+     * @param vertices
+     *            the vertices to attract to. They have to be contained in
+     *            <code>subgame</code>.
+     * @param sigma
+     *            the player to force
+     * @param subgame
+     *            the vertices to consider
+     * @param strategy
+     *            array the successors chosen by <code>sigma</code> are written
+     *            to for all vertices attracted. May be <code>null</code> if
+     *            the strategy is not needed.
+     * @return the attractor of <code>sigma</code> to <code>vertices</code>
+     *         with respect to the subgame on <code>subgame</code>
+     */
+    public Subgame getAttractor(final Subgame vertices, final Player sigma,
+            final Subgame subgame, final int[] strategy) {
+        return getAttractor(vertices, sigma, subgame, strategy, null);
+    }
+
+    /**
+     * calculates the attractor of a given set of vertices with respect to
+     * player <code>sigma</code>, attracting the tangles of <code>sigma</code>
+     * given as whole.
+     *
+     * @param vertices
+     *            the vertices to attract to. They have to be contained in
+     *            <code>subgame</code>.
+     * @param sigma
+     *            the player to force
+     * @param subgame
+     *            the vertices to consider
+     * @param strategy
+     *            array the successors chosen by <code>sigma</code> are written
+     *            to for all vertices attracted. May be <code>null</code> if
+     *            the strategy is not needed.
+     * @param tangles
+     *            the tangles to attract or <code>null</code>
+     * @return the attractor of <code>sigma</code> to <code>vertices</code>
+     *         with respect to the subgame on <code>subgame</code>
+     */
+    public Subgame getAttractor(final Subgame vertices, final Player sigma,
+            final Subgame subgame, final int[] strategy, final Tangles tangles) {
+        if (currentStamp == Integer.MAX_VALUE) {
+            Arrays.fill(stamps, 0);
+            Arrays.fill(tangleStamps, 0);
+            currentStamp = 0;
+        }
+        if (tangles != null && tangles.size() > tangleStamps.length) {
+            tangleEscapes = Arrays.copyOf(tangleEscapes, tangles.size());
+            tangleStamps = Arrays.copyOf(tangleStamps, tangles.size());
+        }
+        currentStamp++;
+        final int[] predecessorOffsets = arena.getPredecessorOffsets();
+        final int[] predecessors = arena.getPredecessorTargets();
+        final Subgame attractor = vertices.copy();
+        int head = 0;
+        int tail = 0;
+        for (int vertex = vertices.nextVertex(0); vertex >= 0; vertex = vertices
+                .nextVertex(vertex + 1)) {
+            queue[tail++] = vertex;
+        }
+        while (head < tail) {
+            final int vertex = queue[head++];
+            for (int index = predecessorOffsets[vertex]; index < predecessorOffsets[vertex + 1]; index++) {
+                final int predecessor = predecessors[index];
+                if (!subgame.contains(predecessor)
+                        || attractor.contains(predecessor)) {
+                    continue;
+                }
+                if (arena.getPlayer(predecessor) == sigma) {
+                    if (strategy != null) {
+                        strategy[predecessor] = vertex;
+                    }
+                } else {
+                    if (stamps[predecessor] != currentStamp) {
+                        stamps[predecessor] = currentStamp;
+                        escapes[predecessor] = getNumberOfSuccessorsIn(
+                                predecessor, subgame);
+                    }
+                    if (--escapes[predecessor] > 0) {
+                        continue;
+                    }
+                }
+                attractor.add(predecessor);
+                queue[tail++] = predecessor;
+            }
+            if (tangles != null) {
+                tail = attractTangles(vertex, sigma, subgame, strategy,
+                        tangles, attractor, tail);
+            }
+        }
+        return attractor;
+    }
+
+    /**
+     * decrements the escapes of the tangles of <code>sigma</code> escaping to
+     * <code>vertex</code>, which has just been attracted, and attracts those
+     * without escapes left.
+     *
+     * @return the new tail of <code>queue</code>
+     */
+    private int attractTangles(final int vertex, final Player sigma,
+            final Subgame subgame, final int[] strategy, final Tangles tangles,
+            final Subgame attractor, final int tail) {
+        int newTail = tail;
+        final int[] ids = tangles.getTanglesEscapingTo(vertex);
+        for (int index = 0; index < tangles.getNumberOfTanglesEscapingTo(vertex); index++) {
+            final int id = ids[index];
+            final Tangle tangle = tangles.get(id);
+            if (tangle.getPlayer() != sigma || tangles.isRemoved(id)) {
+                continue;
+            }
+            if (tangleStamps[id] != currentStamp) {
+                tangleStamps[id] = currentStamp;
+                tangleEscapes[id] = getNumberOfEscapesIn(tangle, subgame);
+            }
+            if (--tangleEscapes[id] != 0) {
+                continue;
+            }
+            final int[] tangleVertices = tangle.getVertices();
+            for (int position = 0; position < tangleVertices.length; position++) {
+                final int tangleVertex = tangleVertices[position];
+                if (attractor.contains(tangleVertex)) {
+                    continue;
+                }
+                if (strategy != null && arena.getPlayer(tangleVertex) == sigma) {
+                    strategy[tangleVertex] = tangle.getStrategy()[position];
+                }
+                attractor.add(tangleVertex);
+                queue[newTail++] = tangleVertex;
+            }
+        }
+        return newTail;
+    }
+
+    /**
+     * @return the number of escapes of <code>tangle</code> in
+     *         <code>subgame</code> or -1 if <code>tangle</code> is not
+     *         contained in <code>subgame</code>, so it is never attracted
+     */
+    private static int getNumberOfEscapesIn(final Tangle tangle,
+            final Subgame subgame) {
+        for (final int vertex : tangle.getVertices()) {
+            if (!subgame.contains(vertex)) {
+                return -1;
+            }
+        }
+        int count = 0;
+        for (final int escape : tangle.getEscapes()) {
+            if (subgame.contains(escape)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private int getNumberOfSuccessorsIn(final int vertex,
+            final Subgame subgame) {
+        final int[] successorOffsets = arena.getSuccessorOffsets();
+        final int[] successors = arena.getSuccessorTargets();
+        int count = 0;
+        for (int index = successorOffsets[vertex]; index < successorOffsets[vertex + 1]; index++) {
+            if (subgame.contains(successors[index])) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,98 @@
+package parisolve.backend.algorithms.helper;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntFunction;
+
+import parisolve.backend.ParityVertex;
+import parisolve.backend.Player;
+
+/**
+ * counterpart of <code>Solution</code> for algorithms working on the ids of a
+ * <code>CompactArena</code>. The winning regions are subgames over the ids and
+ * the strategy is an array indexed by id, holding the id of the successor to
+ * move to or <code>NO_SUCCESSOR</code>.
+ *
+ * @see Solution
+ */
+public class IndexedSolution {
+    /**
+     * marks vertices in the strategy-array, for which no successor is chosen.
+     */
+    public static final int NO_SUCCESSOR = -1;
+
+    private final Subgame winningRegionOfA;
+    private final Subgame winningRegionOfB;
+    private final int[] strategy;
+
+    /**
+     * @param winningRegionForSigma
+     *            winning region of player <code>sigma</code>
+     * @param winningRegionOfSigmaOpponent
+     *            winning region of player <code>sigma</code>'s opponent
+     * @param sigma
+     *            the player of the first winning region
+     * @param strategy
+     *            the successor to move to for every id of the arena or
+     *            <code>NO_SUCCESSOR</code>
+     */
+    public IndexedSolution(final Subgame winningRegionForSigma,
+            final Subgame winningRegionOfSigmaOpponent, final Player sigma,
+            final int[] strategy) {
+        if (sigma == Player.A) {
+            winningRegionOfA = winningRegionForSigma;
+            winningRegionOfB = winningRegionOfSigmaOpponent;
+        } else {
+            winningRegionOfA = winningRegionOfSigmaOpponent;
+            winningRegionOfB = winningRegionForSigma;
+        }
+        this.strategy = strategy;
+    }
+
+    /**
+     * accessor method for the winning region of <code>player</code>
+     *
+     * @param player
+     *            the player to return the winning region for
+     * @return <code>player</code>'s winning region
+     */
+    public Subgame getWinningRegionFor(final Player player) {
+        return player == Player.A ? winningRegionOfA : winningRegionOfB;
+    }
+
+    public int[] getStrategy() {
+        return strategy;
+    }
+
+    /**
+     * maps this solution back to vertex-objects, so it can be returned by
+     * <code>Solver.getSolution()</code>. The strategy is only transferred for
+     * vertices which are owned by the player winning them.
+     *
+     * @param vertexForId
+     *            gives the vertex-object for an id
+     * @return the solution on vertex-objects
+     */
+    public Solution toSolution(final IntFunction<ParityVertex> vertexForId) {
+        final Set<ParityVertex> regionOfA = new HashSet<>();
+        final Set<ParityVertex> regionOfB = new HashSet<>();
+        final Map<ParityVertex, ParityVertex> strategyMap = new HashMap<>();
+        for (final Player player : Player.values()) {
+            final Subgame region = getWinningRegionFor(player);
+            final Set<ParityVertex> regionSet = player == Player.A ? regionOfA
+                    : regionOfB;
+            for (int id = region.nextVertex(0); id >= 0; id = region
+                    .nextVertex(id + 1)) {
+                final ParityVertex vertex = vertexForId.apply(id);
+                regionSet.add(vertex);
+                if (vertex.getPlayer() == player
+                        && strategy[id] != NO_SUCCESSOR) {
+                    strategyMap.put(vertex, vertexForId.apply(strategy[id]));
+                }
+            }
+        }
+        return new Solution(regionOfA, regionOfB, Player.A, strategyMap);
+    }
+}
@@ -0,0 +1,183 @@
+package parisolve.backend.algorithms.helper;
+
+import parisolve.backend.Player;
+
+/**
+ * <code>MeasureStore</code> keeping the values of all vertices in one
+ * contiguous <code>int[]</code>. Only the priorities for which
+ * <code>MeasureValue.valueMustBeGreater()</code> holds can have a value
+ * greater than 0, so only these components are stored: component k of a
+ * vertex belongs to the k-th of these priorities in ascending order and the
+ * values of vertex v are found at <code>v * stride</code> to
+ * <code>(v + 1) * stride - 1</code>. Top is marked by <code>TOP</code> in the
+ * first component, as all other values are not negative.
+ */
+public class IntArrayMeasureStore implements MeasureStore {
+    private static final int TOP = -1;
+
+    /**
+     * the number of components stored per vertex.
+     */
+    private final int stride;
+    /**
+     * the number of priorities for which a component is stored. This equals
+     * <code>stride</code>, unless there is no such priority. Then a single
+     * component, which is always 0, is kept to mark Top.
+     */
+    private final int components;
+    /**
+     * the priority component 0 belongs to.
+     */
+    private final int firstPriority;
+    /**
+     * the maximal value of each component before it becomes Top.
+     */
+    private final int[] bounds;
+    private final int maxPriority;
+    private final Player player;
+    private final int maxSumAllowed;
+    private final int[] values;
+    /**
+     * buffer to calculate prog in, so lifting does not allocate.
+     */
+    private final int[] prog;
+
+    /**
+     * @param numberOfVertices
+     *            the number of vertices to store values for
+     * @param player
+     *            the player from who's perspective the progress measure is
+     *            built
+     * @param sizeOfMG
+     *            the maximal value for each priority, as calculated by
+     *            <code>ProgressMeasure.getSizeOfMG()</code>
+     * @param maxSumAllowed
+     *            maximal sum of the components allowed. This is used in the
+     *            <code>BigStepAlgorithm</code>
+     */
+    public IntArrayMeasureStore(final int numberOfVertices,
+            final Player player, final int[] sizeOfMG, final int maxSumAllowed) {
+        maxPriority = sizeOfMG.length - 1;
+        this.player = player;
+        firstPriority = player.getOponent().getNumber();
+        components = maxPriority < firstPriority ? 0
+                : (maxPriority - firstPriority) / 2 + 1;
+        stride = Math.max(components, 1);
+        bounds = new int[stride];
+        for (int component = 0; component < components; component++) {
+            bounds[component] = sizeOfMG[firstPriority + 2 * component];
+        }
+        this.maxSumAllowed = maxSumAllowed;
+        values = new int[numberOfVertices * stride];
+        prog = new int[stride];
+    }
+
+    /**
+     * @return the lowest component which belongs to a priority not smaller
+     *         than <code>priority</code>
+     */
+    private int getComponent(final int priority) {
+        return Math.max(0, (priority - firstPriority + 1) / 2);
+    }
+
+    @Override
+    public final boolean isTop(final int vertex) {
+        return values[vertex * stride] == TOP;
+    }
+
+    @Override
+    public final void setToTop(final int vertex) {
+        values[vertex * stride] = TOP;
+    }
+
+    @Override
+    public final int compare(final int vertex, final int otherVertex) {
+        if (isTop(vertex)) {
+            return isTop(otherVertex) ? 0 : 1;
+        }
+        if (isTop(otherVertex)) {
+            return -1;
+        }
+        final int offset = vertex * stride;
+        final int otherOffset = otherVertex * stride;
+        for (int component = stride - 1; component >= 0; component--) {
+            if (values[offset + component] != values[otherOffset + component]) {
+                return values[offset + component]
+                        - values[otherOffset + component];
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public final boolean liftTo(final int vertex, final int successor,
+            final int priority) {
+        if (isTop(vertex)) {
+            return false;
+        }
+        if (successor != MINIMAL_VALUE && isTop(successor)) {
+            setToTop(vertex);
+            return true;
+        }
+        final int successorOffset = successor * stride;
+        // components below this one are 0 in prog
+        int lowestComponent = getComponent(priority);
+        if (MeasureValue.valueMustBeGreater(priority, player)) {
+            // find the smallest component which one can increase to become
+            // greater than the successor without becoming Top
+            while (lowestComponent < components
+                    && getValue(successor, successorOffset, lowestComponent) >= bounds[lowestComponent]) {
+                lowestComponent++;
+            }
+            if (lowestComponent >= components) {
+                setToTop(vertex);
+                return true;
+            }
+            int sum = 0;
+            for (int component = lowestComponent; component < stride; component++) {
+                sum += getValue(successor, successorOffset, component);
+            }
+            if (sum >= maxSumAllowed) {
+                setToTop(vertex);
+                return true;
+            }
+        }
+        for (int component = 0; component < stride; component++) {
+            prog[component] = component < lowestComponent ? 0 : getValue(
+                    successor, successorOffset, component);
+        }
+        if (MeasureValue.valueMustBeGreater(priority, player)) {
+            prog[lowestComponent]++;
+        }
+
+        final int offset = vertex * stride;
+        for (int component = stride - 1; component >= 0; component--) {
+            if (prog[component] != values[offset + component]) {
+                if (prog[component] < values[offset + component]) {
+                    return false;
+                }
+                System.arraycopy(prog, 0, values, offset, stride);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int getValue(final int vertex, final int offset,
+            final int component) {
+        return vertex == MINIMAL_VALUE ? 0 : values[offset + component];
+    }
+
+    @Override
+    public final MeasureValue getValue(final int vertex) {
+        if (isTop(vertex)) {
+            return MeasureValue.getTopValue();
+        }
+        final int[] value = new int[maxPriority + 1];
+        for (int component = 0; component < components; component++) {
+            value[firstPriority + 2 * component] = values[vertex * stride
+                    + component];
+        }
+        return new MeasureValue(value);
+    }
+}
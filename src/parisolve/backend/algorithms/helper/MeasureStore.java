@@ -0,0 +1,54 @@
+package parisolve.backend.algorithms.helper;
+
+/**
+ * stores the values of a <code>ProgressMeasure</code> for all vertices, which
+ * are identified by ids from 0 to the number of vertices. In contrast to
+ * <code>MeasureValue</code>, values are not objects but are updated in place,
+ * so lifting does not allocate memory.
+ *
+ * @see ProgressMeasure
+ * @see MeasureValue
+ */
+public interface MeasureStore {
+    /**
+     * can be given to <code>liftTo()</code> instead of the id of a successor
+     * to calculate prog from the minimal value, which is everywhere 0.
+     */
+    int MINIMAL_VALUE = -1;
+
+    /**
+     * @return whether the value of <code>vertex</code> is Top
+     */
+    boolean isTop(int vertex);
+
+    void setToTop(int vertex);
+
+    /**
+     * compares the values of the two vertices given.
+     *
+     * @return value such that <code>sign(value) = vertex - otherVertex</code>
+     */
+    int compare(int vertex, int otherVertex);
+
+    /**
+     * calculates m = prog(rho, v, w) as in LNCS 2500 - Definition 7.19 for
+     * <code>vertex</code> being v and <code>successor</code> being w and
+     * assigns it to <code>vertex</code> if it is greater than the current
+     * value of <code>vertex</code>.
+     *
+     * @param vertex
+     *            the vertex to lift
+     * @param successor
+     *            the successor to calculate prog from or
+     *            <code>MINIMAL_VALUE</code>
+     * @param priority
+     *            the priority of <code>vertex</code>
+     * @return whether the value of <code>vertex</code> has changed
+     */
+    boolean liftTo(int vertex, int successor, int priority);
+
+    /**
+     * @return the value of <code>vertex</code> as a <code>MeasureValue</code>
+     */
+    MeasureValue getValue(int vertex);
+}
@@ -89,12 +89,13 @@ public class MeasureValue implements Comparable<MeasureValue> {
      * create a new <code>MeasureValue</code> containing the values given.
      * Should only be used by <code>MeasureValue</code> to create a
      * <code>MeasureValue</code> consistent with <code>prog</code> as in LNCS
-     * 2500 - Definition 7.19.
+     * 2500 - Definition 7.19 and by <code>MeasureStore</code>s to return their
+     * values.
      * 
      * @param value
      *            the value to be initialized from
      */
-    private MeasureValue(final int[] value) {
+    MeasureValue(final int[] value) {
         maxPriority = value.length - 1;
         this.value = value.clone();
     }
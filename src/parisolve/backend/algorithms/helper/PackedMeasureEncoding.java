@@ -0,0 +1,196 @@
+package parisolve.backend.algorithms.helper;
+
+import parisolve.backend.Player;
+
+/**
+ * packs values of a progress measure into a single <code>long</code>. As in
+ * <code>IntArrayMeasureStore</code>, only the priorities for which
+ * <code>MeasureValue.valueMustBeGreater()</code> holds are stored. Each of
+ * these components gets as many bits as are needed for its bound from
+ * <code>ProgressMeasure.getSizeOfMG()</code> and components of higher
+ * priorities are stored in higher bits. Therefore, comparing two values is
+ * comparing two <code>long</code>s and prog is calculated by masking and
+ * adding.
+ *
+ * This is only possible if the bits of all components add up to at most
+ * <code>MAX_BITS</code>, which can be checked with <code>fits()</code>. Top is
+ * <code>TOP</code>, which is greater than any packed value.
+ *
+ * Instances are immutable, so they can be shared between threads.
+ *
+ * @see PackedMeasureStore
+ */
+public class PackedMeasureEncoding {
+    /**
+     * the number of bits available for the components. The highest bits are
+     * kept free, so packed values are positive and smaller than
+     * <code>TOP</code>.
+     */
+    public static final int MAX_BITS = 62;
+    public static final long TOP = Long.MAX_VALUE;
+
+    private final int components;
+    private final int firstPriority;
+    private final Player player;
+    private final int maxPriority;
+    /**
+     * the lowest bit of each component.
+     */
+    private final int[] shifts;
+    /**
+     * the mask of each component after shifting it to the lowest bits.
+     */
+    private final long[] masks;
+    private final int[] bounds;
+    private final int maxSumAllowed;
+    /**
+     * whether <code>maxSumAllowed</code> can be reached at all. If not, sums
+     * do not need to be calculated.
+     */
+    private final boolean sumIsRestricted;
+
+    /**
+     * @param player
+     *            the player from who's perspective the progress measure is
+     *            built
+     * @param sizeOfMG
+     *            the maximal value for each priority, as calculated by
+     *            <code>ProgressMeasure.getSizeOfMG()</code>. It has to be
+     *            checked by <code>fits()</code> before.
+     * @param maxSumAllowed
+     *            maximal sum of the components allowed. This is used in the
+     *            <code>BigStepAlgorithm</code>
+     */
+    public PackedMeasureEncoding(final Player player, final int[] sizeOfMG,
+            final int maxSumAllowed) {
+        this.player = player;
+        maxPriority = sizeOfMG.length - 1;
+        firstPriority = player.getOponent().getNumber();
+        components = getNumberOfComponents(player, sizeOfMG);
+        shifts = new int[components + 1];
+        masks = new long[components];
+        bounds = new int[components];
+        long sumOfBounds = 0;
+        for (int component = 0; component < components; component++) {
+            bounds[component] = sizeOfMG[firstPriority + 2 * component];
+            sumOfBounds += bounds[component];
+            final int bits = getBits(bounds[component]);
+            masks[component] = (1L << bits) - 1;
+            shifts[component + 1] = shifts[component] + bits;
+        }
+        this.maxSumAllowed = maxSumAllowed;
+        sumIsRestricted = sumOfBounds >= maxSumAllowed;
+    }
+
+    /**
+     * @return whether the values for the bounds given can be packed into a
+     *         <code>long</code>
+     */
+    public static boolean fits(final Player player, final int[] sizeOfMG) {
+        final int firstPriority = player.getOponent().getNumber();
+        int bits = 0;
+        for (int component = 0; component < getNumberOfComponents(player,
+                sizeOfMG); component++) {
+            bits += getBits(sizeOfMG[firstPriority + 2 * component]);
+        }
+        return bits <= MAX_BITS;
+    }
+
+    private static int getNumberOfComponents(final Player player,
+            final int[] sizeOfMG) {
+        final int firstPriority = player.getOponent().getNumber();
+        final int maxPriority = sizeOfMG.length - 1;
+        return maxPriority < firstPriority ? 0
+                : (maxPriority - firstPriority) / 2 + 1;
+    }
+
+    /**
+     * @return the number of bits to store values from 0 to <code>bound</code>
+     */
+    private static int getBits(final int bound) {
+        return Integer.SIZE - Integer.numberOfLeadingZeros(bound);
+    }
+
+    /**
+     * @return the lowest component which belongs to a priority not smaller
+     *         than <code>priority</code>
+     */
+    private int getComponent(final int priority) {
+        return Math.max(0, (priority - firstPriority + 1) / 2);
+    }
+
+    private long getComponentValue(final long value, final int component) {
+        return (value >>> shifts[component]) & masks[component];
+    }
+
+    /**
+     * calculates m = prog(rho, v, w) as in LNCS 2500 - Definition 7.19 on
+     * packed values.
+     *
+     * @param value
+     *            the packed value of w
+     * @param priority
+     *            the priority of v
+     * @return the packed value of prog(rho, v, w)
+     */
+    public final long getProgValue(final long value, final int priority) {
+        if (value == TOP) {
+            return TOP;
+        }
+        if (MeasureValue.valueMustBeGreater(priority, player)) {
+            return getProgValueToIncrease(value, getComponent(priority));
+        }
+        return value
+                & -(1L << shifts[Math.min(getComponent(priority), components)]);
+    }
+
+    /**
+     * calculates prog for a vertex with a priority for which the value has to
+     * become greater than <code>value</code>.
+     *
+     * @param value
+     *            the value of the successor
+     * @param lowestComponent
+     *            the component of the priority of the vertex
+     * @return the packed value of prog
+     */
+    private long getProgValueToIncrease(final long value,
+            final int lowestComponent) {
+        // find the smallest component which one can increase to become
+        // greater than value without becoming Top
+        int componentToRaise = lowestComponent;
+        while (componentToRaise < components
+                && getComponentValue(value, componentToRaise) >= bounds[componentToRaise]) {
+            componentToRaise++;
+        }
+        if (componentToRaise >= components) {
+            return TOP;
+        }
+        if (sumIsRestricted) {
+            long sum = 0;
+            for (int component = componentToRaise; component < components; component++) {
+                sum += getComponentValue(value, component);
+            }
+            if (sum >= maxSumAllowed) {
+                return TOP;
+            }
+        }
+        return (value & -(1L << shifts[componentToRaise]))
+                + (1L << shifts[componentToRaise]);
+    }
+
+    /**
+     * @return <code>packedValue</code> as a <code>MeasureValue</code>
+     */
+    public final MeasureValue toMeasureValue(final long packedValue) {
+        if (packedValue == TOP) {
+            return MeasureValue.getTopValue();
+        }
+        final int[] value = new int[maxPriority + 1];
+        for (int component = 0; component < components; component++) {
+            value[firstPriority + 2 * component] = (int) getComponentValue(
+                    packedValue, component);
+        }
+        return new MeasureValue(value);
+    }
+}
@@ -0,0 +1,73 @@
+package parisolve.backend.algorithms.helper;
+
+import parisolve.backend.Player;
+
+/**
+ * <code>MeasureStore</code> packing the value of each vertex into a single
+ * <code>long</code> as described in <code>PackedMeasureEncoding</code>.
+ * Therefore, comparing two values is comparing two <code>long</code>s and prog
+ * is calculated by masking and adding.
+ *
+ * This is only possible if the values fit, which can be checked with
+ * <code>PackedMeasureEncoding.fits()</code>.
+ */
+public class PackedMeasureStore implements MeasureStore {
+    private final PackedMeasureEncoding encoding;
+    private final long[] values;
+
+    /**
+     * @param numberOfVertices
+     *            the number of vertices to store values for
+     * @param player
+     *            the player from who's perspective the progress measure is
+     *            built
+     * @param sizeOfMG
+     *            the maximal value for each priority, as calculated by
+     *            <code>ProgressMeasure.getSizeOfMG()</code>. It has to be
+     *            checked by <code>PackedMeasureEncoding.fits()</code> before.
+     * @param maxSumAllowed
+     *            maximal sum of the components allowed. This is used in the
+     *            <code>BigStepAlgorithm</code>
+     */
+    public PackedMeasureStore(final int numberOfVertices, final Player player,
+            final int[] sizeOfMG, final int maxSumAllowed) {
+        encoding = new PackedMeasureEncoding(player, sizeOfMG, maxSumAllowed);
+        values = new long[numberOfVertices];
+    }
+
+    @Override
+    public final boolean isTop(final int vertex) {
+        return values[vertex] == PackedMeasureEncoding.TOP;
+    }
+
+    @Override
+    public final void setToTop(final int vertex) {
+        values[vertex] = PackedMeasureEncoding.TOP;
+    }
+
+    @Override
+    public final int compare(final int vertex, final int otherVertex) {
+        return Long.compare(values[vertex], values[otherVertex]);
+    }
+
+    @Override
+    public final boolean liftTo(final int vertex, final int successor,
+            final int priority) {
+        final long current = values[vertex];
+        if (current == PackedMeasureEncoding.TOP) {
+            return false;
+        }
+        final long prog = encoding.getProgValue(
+                successor == MINIMAL_VALUE ? 0 : values[successor], priority);
+        if (prog > current) {
+            values[vertex] = prog;
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public final MeasureValue getValue(final int vertex) {
+        return encoding.toMeasureValue(values[vertex]);
+    }
+}
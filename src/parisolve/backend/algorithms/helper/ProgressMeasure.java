@@ -1,19 +1,16 @@
 package parisolve.backend.algorithms.helper;
 
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
 
 import parisolve.backend.Arena;
 import parisolve.backend.ParityVertex;
 import parisolve.backend.Player;
-import parisolve.backend.algorithms.helper.MeasureValue.MeasureValueComparator;
-
-import com.google.common.collect.Sets;
-import com.google.common.collect.Sets.SetView;
 
 /**
  * helper class for <code>SmallMeasureAlgorithm</code>, representing a progress
@@ -29,31 +26,37 @@ public class ProgressMeasure {
     /**
      * represents the map from V to M_G^T. In contrast to the book, we compare
      * measures from the back to the front in order to solve max-parity-games.
+     * Vertices are identified by their index in <code>vertexOfId</code>.
+     * Values are packed into a single <code>long</code> per vertex, if the
+     * bounds of M_G allow it.
      */
-    private final Map<ParityVertex, MeasureValue> measure = new ConcurrentHashMap<>();
+    private final MeasureStore measure;
     /**
-     * maximal dimensions of M_G before it becomes Top. This is the number of
-     * vertices of each odd priority.
+     * the player from who's perspective this progress measure is to be built,
+     * that is Top are winning for player.getOponnent().
      */
-    private final int[] sizeOfMG;
+    private final Player player;
+    private final Set<? extends ParityVertex> vertices;
+
+    private final Map<ParityVertex, Integer> ids = new HashMap<>();
+    private final ParityVertex[] vertexOfId;
+    private final int[] priorities;
     /**
-     * can be used to restrict the <code>ProgressMeasure</code> to measure
-     * values which's entries sum up to maximal <code>maxSumAllowed</code>. This
-     * is used in <code>BigStelAlgorithm</code>.
+     * the ids of the successors of each vertex which are in
+     * <code>vertices</code>. These are determined once, so lifting does not
+     * need to intersect the successors with <code>vertices</code>.
      */
-    private final int maxSumAllowed;
-
+    private final int[][] successorIds;
     /**
-     * the minimal value a <code>ProgressMeasure</code> can assign to a vertex.
-     * It is everywhere 0.
+     * whether prog is the maximum (<code>true</code>) or the minimum (
+     * <code>false</code>) of the values of the successors.
      */
-    private final MeasureValue minMeasure;
+    private final boolean[] searchForMax;
     /**
-     * the player from who's perspective this progress measure is to be built,
-     * that is Top are winning for player.getOponnent().
+     * whether a vertex is Top because it has a selfcycle which is good for
+     * player's opponent and which the opponent can take.
      */
-    private final Player player;
-    private final Set<? extends ParityVertex> vertices;
+    private final boolean[] topBySelfcycle;
 
     /**
      * create <code>ProgressMeasure</code> on the given vertices which is
@@ -73,9 +76,36 @@ public class ProgressMeasure {
         this.vertices = vertices;
         this.player = player;
         final int maxPriority = Arena.getMaxPriority(vertices);
-        this.sizeOfMG = getSizeOfMG(vertices, player, maxPriority);
-        this.maxSumAllowed = maxSumAllowed;
-        minMeasure = new MeasureValue(maxPriority);
+        final int[] sizeOfMG = getSizeOfMG(vertices, player, maxPriority);
+        if (PackedMeasureEncoding.fits(player, sizeOfMG)) {
+            measure = new PackedMeasureStore(vertices.size(), player,
+                    sizeOfMG, maxSumAllowed);
+        } else {
+            measure = new IntArrayMeasureStore(vertices.size(), player,
+                    sizeOfMG, maxSumAllowed);
+        }
+
+        vertexOfId = vertices.toArray(new ParityVertex[vertices.size()]);
+        for (int id = 0; id < vertexOfId.length; id++) {
+            ids.put(vertexOfId[id], id);
+        }
+        priorities = new int[vertexOfId.length];
+        successorIds = new int[vertexOfId.length][];
+        searchForMax = new boolean[vertexOfId.length];
+        topBySelfcycle = new boolean[vertexOfId.length];
+        for (int id = 0; id < vertexOfId.length; id++) {
+            final ParityVertex vertex = vertexOfId[id];
+            priorities[id] = vertex.getPriority();
+            searchForMax[id] = vertex.getPlayer() == player.getOponent();
+            successorIds[id] = vertex.getSuccessors().stream()
+                    .map(ids::get).filter(successor -> successor != null)
+                    .mapToInt(Integer::intValue).toArray();
+            topBySelfcycle[id] = MeasureValue.valueMustBeGreater(
+                    priorities[id], player)
+                    && (successorIds[id].length == 1 || searchForMax[id])
+                    && IntStream.of(successorIds[id]).anyMatch(
+                            successor -> vertexOfId[successor] == vertex);
+        }
     }
 
     public final Player getPlayer() {
@@ -94,10 +124,14 @@ public class ProgressMeasure {
      * @return the progress measure's value
      */
     public final MeasureValue get(final ParityVertex v) {
-        if (!measure.containsKey(v)) {
-            measure.put(v, minMeasure);
-        }
-        return measure.get(v);
+        return measure.getValue(ids.get(v));
+    }
+
+    /**
+     * @return whether the progress measure's value for <code>v</code> is Top
+     */
+    public final boolean isTop(final ParityVertex v) {
+        return measure.isTop(ids.get(v));
     }
 
     /**
@@ -110,84 +144,52 @@ public class ProgressMeasure {
      * @return whether this has changed anything
      */
     public final boolean lift(final ParityVertex v) {
-        final MeasureValue currentValue = get(v);
-        if (!currentValue.isTop()) {
-            final boolean searchForMax = v.getPlayer() == player.getOponent();
-            final MeasureValue valueToCompareWith = prog(v, searchForMax);
-            if (valueToCompareWith.compareTo(currentValue) > 0) {
-                measure.put(v, valueToCompareWith);
-                return true;
-            }
+        final int vertex = ids.get(v);
+        if (measure.isTop(vertex)) {
+            return false;
+        }
+        if (topBySelfcycle[vertex]
+                || (successorIds[vertex].length == 0 && !searchForMax[vertex])) {
+            // the minimum of no successors' values is Top as well
+            measure.setToTop(vertex);
+            return true;
         }
-        return false;
+        return measure.liftTo(vertex, getBestSuccessor(vertex),
+                priorities[vertex]);
     }
 
     /**
-     * calculates the maximum or minimum value of prog(rho, v, w) for all
-     * successors w of v as in LNCS 2500 - Definition 7.22 in order to lift rho
-     * at v.The measure rho used is <code>this</code> measure.
+     * finds the successor w of v with the maximal or minimal value, so that
+     * prog(rho, v, w) is maximal or minimal respectively as in LNCS 2500 -
+     * Definition 7.22.
      * 
-     * @param v
-     *            the vertex to calculate prog for
-     * @param searchForMax
-     *            <code>true</code> iff we are looking for the maximal value and
-     *            <code>false</code> iff we are looking for a minimal value
-     * @return the maximum or minimum value of prog(rho, v, w) respectively
+     * @param vertex
+     *            the id of the vertex to find the successor for
+     * @return the id of the successor or <code>MINIMAL_VALUE</code> if the
+     *         maximum of no successors is searched
      */
-    private MeasureValue prog(final ParityVertex v, final boolean searchForMax) {
-        final int priority = v.getPriority();
-        final SetView<? extends ParityVertex> successors = Sets.intersection(
-                v.getSuccessors(), vertices);
-        if (priority % 2 == player.getOponent().getNumber()
-                && (successors.size() == 1 || v.getPlayer() == player
-                        .getOponent()) && successors.contains(v)) {
-            return MeasureValue.getTopValue();
+    private int getBestSuccessor(final int vertex) {
+        final int[] successors = successorIds[vertex];
+        if (successors.length == 0) {
+            return MeasureStore.MINIMAL_VALUE;
         }
-        final MeasureValue bestSuccessorValue;
-        if (searchForMax) {
-            bestSuccessorValue = getMaxValueOf(successors);
-        } else {
-            bestSuccessorValue = getMinValueOf(successors);
+        int bestSuccessor = successors[0];
+        for (int index = 1; index < successors.length; index++) {
+            final int comparison = measure.compare(successors[index],
+                    bestSuccessor);
+            if (searchForMax[vertex] ? comparison > 0 : comparison < 0) {
+                bestSuccessor = successors[index];
+            }
         }
-        return bestSuccessorValue.getProgValue(priority, player, sizeOfMG,
-                maxSumAllowed);
-    }
-
-    /**
-     * find the maximal <code>MeasureValue</code> of the <code>vertices</code>
-     * given.
-     * 
-     * @param successors
-     *            vertices to consider
-     * @return the maximal value of the vertices given
-     */
-    private MeasureValue getMaxValueOf(
-            final Collection<? extends ParityVertex> successors) {
-        return successors.stream().map(this::get)
-                .max(MeasureValueComparator.getInstance()).orElse(minMeasure);
-    }
-
-    /**
-     * find the minimal <code>MeasureValue</code> of the <code>vertices</code>
-     * given.
-     * 
-     * @param successors
-     *            vertices to consider
-     * @return the minimal value of the vertices given
-     */
-    private MeasureValue getMinValueOf(
-            final Collection<? extends ParityVertex> successors) {
-        return successors.stream().map(this::get)
-                .min(MeasureValueComparator.getInstance())
-                .orElse(MeasureValue.getTopValue());
+        return bestSuccessor;
     }
 
     @Override
     public String toString() {
         final StringBuilder resultBuilder = new StringBuilder();
-        for (final Entry<ParityVertex, MeasureValue> pair : measure.entrySet()) {
-            resultBuilder.append(pair.getKey() + " -> " + pair.getValue()
-                    + "\n");
+        for (int id = 0; id < vertexOfId.length; id++) {
+            resultBuilder.append(vertexOfId[id] + " -> "
+                    + measure.getValue(id) + "\n");
         }
         return resultBuilder.toString();
     }
@@ -208,11 +210,11 @@ public class ProgressMeasure {
         final Set<ParityVertex> winningRegionForB = new HashSet<>();
         // TODO: extract strategy
         final Map<ParityVertex, ParityVertex> strategy = new ConcurrentHashMap<>();
-        for (final ParityVertex vertex : measure.keySet()) {
-            if ((Player.B == player) == get(vertex).isTop()) {
-                winningRegionForA.add(vertex);
+        for (int id = 0; id < vertexOfId.length; id++) {
+            if ((Player.B == player) == measure.isTop(id)) {
+                winningRegionForA.add(vertexOfId[id]);
             } else {
-                winningRegionForB.add(vertex);
+                winningRegionForB.add(vertexOfId[id]);
             }
         }
         return new Solution(winningRegionForA, winningRegionForB, Player.A,
@@ -247,6 +249,6 @@ public class ProgressMeasure {
     }
 
     public void setToTop(ParityVertex vertex) {
-        measure.put(vertex, MeasureValue.getTopValue());
+        measure.setToTop(ids.get(vertex));
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
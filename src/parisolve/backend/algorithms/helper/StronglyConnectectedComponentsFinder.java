@@ -2,88 +2,196 @@ package parisolve.backend.algorithms.helper;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
-import java.util.Stack;
-import java.util.concurrent.ConcurrentHashMap;
 
 import parisolve.backend.Arena;
+import parisolve.backend.CompactArena;
 import parisolve.backend.ParityVertex;
+import parisolve.backend.Player;
 import parisolve.io.ArenaManager;
 
 /**
  * implements Tarjan's algorithm for finding strongly connected components.
- * 
+ *
+ * The depth-first search is done iteratively on the ids of a
+ * <code>CompactArena</code>: instead of recursing, the vertices on the search
+ * path are kept in an array together with the position of the next edge to
+ * look at. Therefore, the size of the arena is not limited by the size of the
+ * thread's stack and, apart from the components returned, only a few arrays of
+ * the size of the arena are needed.
+ *
+ * Components are returned in the order Tarjan's algorithm finds them, which is
+ * a reverse topological order: a component is found only after all components
+ * reachable from it.
+ *
  * @author Arne Schröder
  */
 public class StronglyConnectectedComponentsFinder {
+    private static final int UNVISITED = -1;
+
     private StronglyConnectectedComponentsFinder() {
         // disable
     }
 
-    private static int strongConnect(final ParityVertex vertex,
-            int currentIndex, final Map<ParityVertex, Integer> index,
-            final Map<ParityVertex, Integer> lowlink,
-            final Stack<ParityVertex> stack, final Set<ParityVertex> inStack,
-            final List<Set<ParityVertex>> componentList) {
+    /**
+     * @return List of strongly connected components found in <code>arena</code>
+     */
+    public static List<Set<ParityVertex>> getStronglyConnectedComponents(
+            final Arena arena) {
+        final CompactArena compactArena;
+        final List<ParityVertex> vertices;
+        if (arena instanceof CompactArena) {
+            compactArena = (CompactArena) arena;
+            vertices = null;
+        } else {
+            vertices = new ArrayList<>(arena);
+            compactArena = CompactArena.fromVertices(vertices);
+        }
 
-        index.put(vertex, currentIndex);
-        lowlink.put(vertex, currentIndex);
-        currentIndex++;
-        stack.push(vertex);
-        inStack.add(vertex);
-        int currentIndex1 = currentIndex;
-        
-        // consider successors
-        for (final ParityVertex successor : vertex.getSuccessors()) {
-            if (!index.containsKey(successor)) {
-                currentIndex1 = strongConnect(successor, currentIndex1, index,
-                        lowlink, stack, inStack, componentList);
-                if (lowlink.get(successor) < lowlink.get(vertex)) {
-                    lowlink.put(vertex, lowlink.get(successor));
-                }
-            } else if (inStack.contains(successor)) {
-                if (index.get(successor) < lowlink.get(vertex)) {
-                    lowlink.put(vertex, index.get(successor));
-                }
+        final List<Set<ParityVertex>> components = new ArrayList<>();
+        for (final int[] component : getStronglyConnectedComponents(compactArena)) {
+            final Set<ParityVertex> connectedComponent = new HashSet<>();
+            for (final int id : component) {
+                connectedComponent.add(vertices == null ? compactArena
+                        .getVertex(id) : vertices.get(id));
             }
+            components.add(connectedComponent);
         }
+        return components;
+    }
 
-        currentIndex = currentIndex1;
-
-        if (index.get(vertex).equals(lowlink.get(vertex))) {
-            final Set<ParityVertex> connectedComponent = new HashSet<ParityVertex>();
-            ParityVertex vertexVisited;
-            do {
-                vertexVisited = stack.pop();
-                inStack.remove(vertexVisited);
-                connectedComponent.add(vertexVisited);
-            } while (!vertexVisited.equals(vertex));
+    /**
+     * @return List of strongly connected components found in
+     *         <code>arena</code>, each given by the ids of its vertices
+     */
+    public static List<int[]> getStronglyConnectedComponents(
+            final CompactArena arena) {
+        return getStronglyConnectedComponents(Subgame.allVerticesOf(arena));
+    }
 
-            componentList.add(connectedComponent);
-        }
-        return currentIndex;
+    /**
+     * finds the strongly connected components of the subgame induced by
+     * <code>subgame</code>, i.e. only edges between vertices of
+     * <code>subgame</code> are considered.
+     *
+     * @param subgame
+     *            the vertices to find the components of
+     * @return List of strongly connected components found in
+     *         <code>subgame</code>, each given by the ids of its vertices
+     */
+    public static List<int[]> getStronglyConnectedComponents(
+            final Subgame subgame) {
+        return getStronglyConnectedComponents(subgame, null, null);
     }
 
     /**
-     * @return List of strongly connected components found in <code>arena</code>
+     * finds the strongly connected components of the subgame induced by
+     * <code>subgame</code> when <code>player</code> plays
+     * <code>strategy</code>, i.e. the only edge of a vertex of
+     * <code>player</code> is the one to the successor chosen by
+     * <code>strategy</code>.
+     *
+     * @param subgame
+     *            the vertices to find the components of
+     * @param player
+     *            the player whose edges are restricted or <code>null</code>
+     *            if all edges are considered
+     * @param strategy
+     *            the successor of each vertex of <code>player</code> or
+     *            <code>IndexedSolution.NO_SUCCESSOR</code> if it has no edge
+     * @return List of strongly connected components found, each given by the
+     *         ids of its vertices
      */
-    public static List<Set<ParityVertex>> getStronglyConnectedComponents(
-            final Arena arena) {
-        final Map<ParityVertex, Integer> index = new ConcurrentHashMap<ParityVertex, Integer>();
-        final Map<ParityVertex, Integer> lowlink = new ConcurrentHashMap<ParityVertex, Integer>();
-        final Stack<ParityVertex> stack = new Stack<ParityVertex>();
-        // used for faster querying stack.contains() similar to SetStackLiftable
-        final Set<ParityVertex> inStack = new HashSet<ParityVertex>();
-        final List<Set<ParityVertex>> components = new ArrayList<Set<ParityVertex>>();
+    public static List<int[]> getStronglyConnectedComponents(
+            final Subgame subgame, final Player player, final int[] strategy) {
+        final CompactArena arena = subgame.getArena();
+        final int[] successorOffsets = arena.getSuccessorOffsets();
+        final int[] successors = arena.getSuccessorTargets();
+        final int size = arena.size();
 
+        final int[] index = new int[size];
+        Arrays.fill(index, UNVISITED);
+        final int[] lowlink = new int[size];
+        final boolean[] inStack = new boolean[size];
+        // Tarjan's stack of vertices not assigned to a component yet
+        final int[] stack = new int[size];
+        int stackSize = 0;
+        // the path of the depth-first search, which replaces the recursion,
+        // and for each vertex on it the next edge to look at
+        final int[] path = new int[size];
+        final int[] nextEdge = new int[size];
+        int pathLength = 0;
+
+        final List<int[]> components = new ArrayList<>();
         int currentIndex = 0;
-        for (final ParityVertex v : arena) {
-            if (!index.containsKey(v)) {
-                currentIndex = strongConnect(v, currentIndex, index, lowlink,
-                        stack, inStack, components);
+        for (int root = subgame.nextVertex(0); root >= 0; root = subgame
+                .nextVertex(root + 1)) {
+            if (index[root] != UNVISITED) {
+                continue;
+            }
+            index[root] = currentIndex;
+            lowlink[root] = currentIndex;
+            currentIndex++;
+            stack[stackSize++] = root;
+            inStack[root] = true;
+            path[pathLength] = root;
+            nextEdge[pathLength] = successorOffsets[root];
+            pathLength++;
+
+            while (pathLength > 0) {
+                final int vertex = path[pathLength - 1];
+                final int edge = nextEdge[pathLength - 1];
+                final boolean restricted = arena.getPlayer(vertex) == player;
+                if (edge < (restricted ? successorOffsets[vertex] + 1
+                        : successorOffsets[vertex + 1])) {
+                    // consider the next successor
+                    nextEdge[pathLength - 1]++;
+                    final int successor = restricted ? strategy[vertex]
+                            : successors[edge];
+                    if (successor == IndexedSolution.NO_SUCCESSOR) {
+                        continue;
+                    }
+                    if (!subgame.contains(successor)) {
+                        continue;
+                    }
+                    if (index[successor] == UNVISITED) {
+                        // corresponds to the recursive call
+                        index[successor] = currentIndex;
+                        lowlink[successor] = currentIndex;
+                        currentIndex++;
+                        stack[stackSize++] = successor;
+                        inStack[successor] = true;
+                        path[pathLength] = successor;
+                        nextEdge[pathLength] = successorOffsets[successor];
+                        pathLength++;
+                    } else if (inStack[successor]
+                            && index[successor] < lowlink[vertex]) {
+                        lowlink[vertex] = index[successor];
+                    }
+                    continue;
+                }
+
+                // all successors have been considered
+                if (lowlink[vertex] == index[vertex]) {
+                    int start = stackSize;
+                    do {
+                        start--;
+                        inStack[stack[start]] = false;
+                    } while (stack[start] != vertex);
+                    components.add(Arrays.copyOfRange(stack, start, stackSize));
+                    stackSize = start;
+                }
+                // corresponds to returning from the recursive call
+                pathLength--;
+                if (pathLength > 0) {
+                    final int parent = path[pathLength - 1];
+                    if (lowlink[vertex] < lowlink[parent]) {
+                        lowlink[parent] = lowlink[vertex];
+                    }
+                }
             }
         }
 
@@ -94,4 +202,4 @@ public class StronglyConnectectedComponentsFinder {
         Arena arena = ArenaManager.generateRandomArena(100000, 1, 7);
         System.out.println(getStronglyConnectedComponents(arena).size());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,239 @@
+package parisolve.backend.algorithms.helper;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import parisolve.backend.CompactArena;
+
+/**
+ * a subgame of a <code>CompactArena</code>, given by the ids of its vertices.
+ * The ids are stored as bits in an array of <code>long</code>s, so a subgame
+ * takes |V|/8 bytes and set operations like difference and union work on 64
+ * vertices at once.
+ *
+ * In contrast to <code>BitSet</code> the array always has the length needed
+ * for all ids of the arena and is never resized. Subgames of the same arena
+ * can therefore be combined word by word without any checks.
+ */
+public final class Subgame {
+    private static final int BITS_PER_WORD = 64;
+
+    private final CompactArena arena;
+    private final long[] words;
+
+    private Subgame(final CompactArena arena, final long[] words) {
+        this.arena = arena;
+        this.words = words;
+    }
+
+    /**
+     * creates an empty subgame of <code>arena</code>.
+     *
+     * @param arena
+     *            the arena to create a subgame of
+     */
+    public Subgame(final CompactArena arena) {
+        this(arena, new long[(arena.size() + BITS_PER_WORD - 1)
+                / BITS_PER_WORD]);
+    }
+
+    /**
+     * @return the subgame containing every vertex of <code>arena</code>
+     */
+    public static Subgame allVerticesOf(final CompactArena arena) {
+        final Subgame subgame = new Subgame(arena);
+        final int size = arena.size();
+        Arrays.fill(subgame.words, 0, size / BITS_PER_WORD, -1L);
+        if (size % BITS_PER_WORD != 0) {
+            subgame.words[size / BITS_PER_WORD] = (1L << size) - 1;
+        }
+        return subgame;
+    }
+
+    /**
+     * @return the subgame of <code>arena</code> containing the ids set in
+     *         <code>vertices</code>
+     */
+    public static Subgame fromBitSet(final CompactArena arena,
+            final BitSet vertices) {
+        final Subgame subgame = new Subgame(arena);
+        final long[] bits = vertices.toLongArray();
+        System.arraycopy(bits, 0, subgame.words, 0,
+                Math.min(bits.length, subgame.words.length));
+        return subgame;
+    }
+
+    public BitSet toBitSet() {
+        return BitSet.valueOf(words);
+    }
+
+    public CompactArena getArena() {
+        return arena;
+    }
+
+    public boolean contains(final int vertex) {
+        return (words[vertex / BITS_PER_WORD] & (1L << vertex)) != 0;
+    }
+
+    public void add(final int vertex) {
+        words[vertex / BITS_PER_WORD] |= 1L << vertex;
+    }
+
+    public void remove(final int vertex) {
+        words[vertex / BITS_PER_WORD] &= ~(1L << vertex);
+    }
+
+    public boolean isEmpty() {
+        for (final long word : words) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the number of vertices in this subgame
+     */
+    public int cardinality() {
+        int cardinality = 0;
+        for (final long word : words) {
+            cardinality += Long.bitCount(word);
+        }
+        return cardinality;
+    }
+
+    /**
+     * gives the smallest id in this subgame, which is not smaller than
+     * <code>fromVertex</code>. Iterating over a subgame therefore reads
+     * <code>for (int v = s.nextVertex(0); v >= 0; v = s.nextVertex(v + 1))</code>
+     * .
+     *
+     * @param fromVertex
+     *            the id to start searching from
+     * @return the next id in this subgame or <code>-1</code> if there is none
+     */
+    public int nextVertex(final int fromVertex) {
+        int index = fromVertex / BITS_PER_WORD;
+        if (index >= words.length) {
+            return -1;
+        }
+        long word = words[index] & (-1L << fromVertex);
+        while (word == 0) {
+            index++;
+            if (index == words.length) {
+                return -1;
+            }
+            word = words[index];
+        }
+        return index * BITS_PER_WORD + Long.numberOfTrailingZeros(word);
+    }
+
+    /**
+     * @return the maximal priority of the vertices in this subgame or
+     *         <code>Integer.MIN_VALUE</code> if it is empty
+     */
+    public int getMaxPriority() {
+        int maxPriority = Integer.MIN_VALUE;
+        for (int index = 0; index < words.length; index++) {
+            long word = words[index];
+            while (word != 0) {
+                final int vertex = index * BITS_PER_WORD
+                        + Long.numberOfTrailingZeros(word);
+                maxPriority = Math.max(maxPriority, arena.getPriority(vertex));
+                word &= word - 1;
+            }
+        }
+        return maxPriority;
+    }
+
+    /**
+     * @return the minimal priority of the vertices in this subgame or
+     *         <code>Integer.MAX_VALUE</code> if it is empty
+     */
+    public int getMinPriority() {
+        int minPriority = Integer.MAX_VALUE;
+        for (int index = 0; index < words.length; index++) {
+            long word = words[index];
+            while (word != 0) {
+                final int vertex = index * BITS_PER_WORD
+                        + Long.numberOfTrailingZeros(word);
+                minPriority = Math.min(minPriority, arena.getPriority(vertex));
+                word &= word - 1;
+            }
+        }
+        return minPriority;
+    }
+
+    /**
+     * @return the vertices of this subgame having priority
+     *         <code>priority</code>
+     */
+    public Subgame getVerticesWithPriority(final int priority) {
+        final Subgame vertices = new Subgame(arena);
+        for (int index = 0; index < words.length; index++) {
+            long word = words[index];
+            while (word != 0) {
+                final long lowestBit = word & -word;
+                final int vertex = index * BITS_PER_WORD
+                        + Long.numberOfTrailingZeros(word);
+                if (arena.getPriority(vertex) == priority) {
+                    vertices.words[index] |= lowestBit;
+                }
+                word ^= lowestBit;
+            }
+        }
+        return vertices;
+    }
+
+    /**
+     * @return a new subgame containing the vertices of this subgame which are
+     *         not in <code>other</code>
+     */
+    public Subgame minus(final Subgame other) {
+        final Subgame difference = copy();
+        difference.removeAll(other);
+        return difference;
+    }
+
+    /**
+     * removes the vertices of <code>other</code> from this subgame.
+     */
+    public void removeAll(final Subgame other) {
+        for (int index = 0; index < words.length; index++) {
+            words[index] &= ~other.words[index];
+        }
+    }
+
+    /**
+     * adds the vertices of <code>other</code> to this subgame.
+     */
+    public void addAll(final Subgame other) {
+        for (int index = 0; index < words.length; index++) {
+            words[index] |= other.words[index];
+        }
+    }
+
+    public Subgame copy() {
+        return new Subgame(arena, words.clone());
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (!(obj instanceof Subgame)) {
+            return false;
+        }
+        final Subgame other = (Subgame) obj;
+        return arena == other.arena && Arrays.equals(words, other.words);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(words);
+    }
+
+    @Override
+    public String toString() {
+        return toBitSet().toString();
+    }
+}
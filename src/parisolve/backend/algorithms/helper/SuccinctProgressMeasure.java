@@ -0,0 +1,349 @@
+package parisolve.backend.algorithms.helper;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import parisolve.backend.Arena;
+import parisolve.backend.ParityVertex;
+import parisolve.backend.Player;
+
+/**
+ * helper class for <code>SuccinctMeasureAlgorithm</code>, representing a
+ * succinct progress measure as in Jurdzinski and Lazic - Succinct progress
+ * measures for solving parity games (2017). Its interface is the one of
+ * <code>ProgressMeasure</code>.
+ *
+ * Instead of a number bounded by the number of vertices of its priority, a
+ * value has a binary string for every priority for which
+ * <code>MeasureValue.valueMustBeGreater()</code> holds, with the lengths of
+ * all strings adding up to at most <code>maxLength</code>, which is
+ * logarithmic in the number of vertices with such a priority. Strings are
+ * ordered as the nodes of a binary tree in in-order, i.e. 0s &lt; s &lt; 1s,
+ * and values are compared string by string from the highest priority to the
+ * lowest, as in <code>ProgressMeasure</code>. As there are only
+ * quasi-polynomially many such values, the lifting terminates after a
+ * quasi-polynomial number of lifts.
+ *
+ * Each string is stored as a single <code>int</code>, which is the string's
+ * bits preceded by a 1, so the empty string is 1. All strings of a vertex are
+ * stored in <code>values</code> with a stride of the number of components,
+ * the lowest priority first. Top is marked by 0 as the first string. If there
+ * is no priority good for player's opponent, a value has no strings at all, but
+ * a single <code>int</code> is kept anyway, which is 1 for every value but Top.
+ */
+public class SuccinctProgressMeasure {
+    private static final int TOP = 0;
+    private static final int EMPTY = 1;
+
+    /**
+     * the player from who's perspective this progress measure is to be built,
+     * that is Top are winning for player.getOponnent().
+     */
+    private final Player player;
+
+    private final Map<ParityVertex, Integer> ids = new HashMap<>();
+    private final ParityVertex[] vertexOfId;
+    private final int[] priorities;
+    /**
+     * the ids of the successors of each vertex which are in the vertices of
+     * this measure.
+     */
+    private final int[][] successorIds;
+    /**
+     * whether prog is the maximum (<code>true</code>) or the minimum (
+     * <code>false</code>) of the values of the successors.
+     */
+    private final boolean[] searchForMax;
+
+    private final int components;
+    private final int firstPriority;
+    private final int stride;
+    /**
+     * the maximal sum of the lengths of the strings of a value.
+     */
+    private final int maxLength;
+    /**
+     * the strings of every vertex, followed by those of the minimal value,
+     * which has the id <code>minimalValue</code>.
+     */
+    private final int[] values;
+    private final int minimalValue;
+    /**
+     * the value prog is calculated in.
+     */
+    private final int[] candidate;
+    /**
+     * the length left for a string and the lower ones, if the strings of
+     * higher priorities are fixed.
+     */
+    private final int[] lengthsLeft;
+
+    /**
+     * create <code>SuccinctProgressMeasure</code> on the given vertices with
+     * every vertex having the minimal value.
+     *
+     * @param vertices
+     *            vertices to apply the progress measure on
+     * @param player
+     *            the player from who's perspective this progress measure is to
+     *            be built, that is Top are winning for player.getOponnent()
+     */
+    public SuccinctProgressMeasure(final Set<ParityVertex> vertices,
+            final Player player) {
+        this.player = player;
+        vertexOfId = vertices.toArray(new ParityVertex[vertices.size()]);
+        for (int id = 0; id < vertexOfId.length; id++) {
+            ids.put(vertexOfId[id], id);
+        }
+        priorities = new int[vertexOfId.length];
+        successorIds = new int[vertexOfId.length][];
+        searchForMax = new boolean[vertexOfId.length];
+        int verticesToCount = 0;
+        for (int id = 0; id < vertexOfId.length; id++) {
+            final ParityVertex vertex = vertexOfId[id];
+            priorities[id] = vertex.getPriority();
+            searchForMax[id] = vertex.getPlayer() == player.getOponent();
+            successorIds[id] = vertex.getSuccessors().stream()
+                    .map(ids::get).filter(successor -> successor != null)
+                    .mapToInt(Integer::intValue).toArray();
+            if (MeasureValue.valueMustBeGreater(priorities[id], player)) {
+                verticesToCount++;
+            }
+        }
+
+        final int maxPriority = Arena.getMaxPriority(vertices);
+        firstPriority = player.getOponent().getNumber();
+        components = maxPriority < firstPriority ? 0
+                : (maxPriority - firstPriority) / 2 + 1;
+        stride = Math.max(1, components);
+        // the number of bits of verticesToCount, i.e. ceil(log(eta + 1))
+        maxLength = Integer.SIZE - Integer.numberOfLeadingZeros(verticesToCount);
+
+        minimalValue = vertexOfId.length;
+        values = new int[(vertexOfId.length + 1) * stride];
+        candidate = new int[stride];
+        lengthsLeft = new int[stride];
+        fillMinimal(candidate, components, maxLength);
+        if (components == 0) {
+            // there are no strings, which fillMinimal() would set to anything
+            // but TOP, so the minimal value is marked explicitly
+            candidate[0] = EMPTY;
+        }
+        for (int id = 0; id <= vertexOfId.length; id++) {
+            System.arraycopy(candidate, 0, values, id * stride, stride);
+        }
+    }
+
+    public final Player getPlayer() {
+        return player;
+    }
+
+    /**
+     * @return whether the progress measure's value for <code>v</code> is Top
+     */
+    public final boolean isTop(final ParityVertex v) {
+        return isTop(ids.get(v));
+    }
+
+    private boolean isTop(final int vertex) {
+        return values[vertex * stride] == TOP;
+    }
+
+    /**
+     * lifts vertex v, that is it implements mu := Lift(mu, v) as
+     * <code>ProgressMeasure.lift()</code> does.
+     *
+     * @param v
+     *            the vertex to lift the progress measure on
+     * @return whether this has changed anything
+     */
+    public final boolean lift(final ParityVertex v) {
+        final int vertex = ids.get(v);
+        if (isTop(vertex)) {
+            return false;
+        }
+        if (successorIds[vertex].length == 0 && !searchForMax[vertex]) {
+            // the minimum of no successors' values is Top as well
+            values[vertex * stride] = TOP;
+            return true;
+        }
+        if (!calculateProg(getBestSuccessor(vertex), priorities[vertex])) {
+            values[vertex * stride] = TOP;
+            return true;
+        }
+        if (compare(candidate, 0, values, vertex * stride) <= 0) {
+            return false;
+        }
+        System.arraycopy(candidate, 0, values, vertex * stride, stride);
+        return true;
+    }
+
+    /**
+     * finds the successor of the vertex given with the maximal or minimal
+     * value. As prog is monotone, this successor determines Lift.
+     *
+     * @return the id of the successor or <code>minimalValue</code> if the
+     *         maximum of no successors is searched
+     */
+    private int getBestSuccessor(final int vertex) {
+        final int[] successors = successorIds[vertex];
+        if (successors.length == 0) {
+            return minimalValue;
+        }
+        int bestSuccessor = successors[0];
+        for (int index = 1; index < successors.length; index++) {
+            final int comparison = compare(values, successors[index] * stride,
+                    values, bestSuccessor * stride);
+            if (searchForMax[vertex] ? comparison > 0 : comparison < 0) {
+                bestSuccessor = successors[index];
+            }
+        }
+        return bestSuccessor;
+    }
+
+    /**
+     * calculates prog into <code>candidate</code>, i.e. the least value which
+     * is greater or equal to the value of <code>successor</code> in the
+     * strings of priorities at least <code>priority</code>, or greater if
+     * <code>priority</code> is good for player's opponent.
+     *
+     * @return whether there is such a value, otherwise prog is Top
+     */
+    private boolean calculateProg(final int successor, final int priority) {
+        if (isTop(successor)) {
+            return false;
+        }
+        final int offset = successor * stride;
+        final int lowestComponent = Math.max(0,
+                (priority - firstPriority + 1) / 2);
+        int lengthLeft = maxLength;
+        for (int component = components - 1; component >= lowestComponent; component--) {
+            lengthsLeft[component] = lengthLeft;
+            lengthLeft -= getLength(values[offset + component]);
+        }
+        if (!MeasureValue.valueMustBeGreater(priority, player)) {
+            System.arraycopy(values, offset + lowestComponent, candidate,
+                    lowestComponent, components - lowestComponent);
+            fillMinimal(candidate, lowestComponent, lengthLeft);
+            return true;
+        }
+        // increase the lowest string which can be increased
+        for (int component = lowestComponent; component < components; component++) {
+            final int next = getNext(values[offset + component],
+                    lengthsLeft[component]);
+            if (next != TOP) {
+                System.arraycopy(values, offset + component + 1, candidate,
+                        component + 1, components - component - 1);
+                candidate[component] = next;
+                fillMinimal(candidate, component, lengthsLeft[component]
+                        - getLength(next));
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * sets the strings of the components below <code>component</code> to the
+     * least strings with a total length of at most <code>lengthLeft</code>,
+     * that is the next lower one to 0...0 and all others to the empty string.
+     */
+    private static void fillMinimal(final int[] value, final int component,
+            final int lengthLeft) {
+        if (component == 0) {
+            return;
+        }
+        value[component - 1] = 1 << lengthLeft;
+        Arrays.fill(value, 0, component - 1, EMPTY);
+    }
+
+    /**
+     * @return the length of the string given
+     */
+    private static int getLength(final int string) {
+        return Integer.SIZE - 1 - Integer.numberOfLeadingZeros(string);
+    }
+
+    /**
+     * determines the next string in in-order among the strings of length at
+     * most <code>maxLength</code>.
+     *
+     * @return the next string or <code>TOP</code> if there is none
+     */
+    private static int getNext(final int string, final int maxLength) {
+        final int length = getLength(string);
+        if (length < maxLength) {
+            // the leftmost node of the right subtree
+            return ((string << 1) | 1) << (maxLength - length - 1);
+        }
+        // the first ancestor of which this is in the left subtree
+        int ancestor = string;
+        while (ancestor != EMPTY && (ancestor & 1) == 1) {
+            ancestor >>>= 1;
+        }
+        return ancestor == EMPTY ? TOP : ancestor >>> 1;
+    }
+
+    /**
+     * compares two strings in in-order.
+     */
+    private static int compareStrings(final int string1, final int string2) {
+        final int length1 = getLength(string1);
+        final int length2 = getLength(string2);
+        final int commonLength = Math.min(length1, length2);
+        final int prefix1 = string1 >>> (length1 - commonLength);
+        final int prefix2 = string2 >>> (length2 - commonLength);
+        if (prefix1 != prefix2) {
+            return Integer.compareUnsigned(prefix1, prefix2);
+        }
+        if (length1 == length2) {
+            return 0;
+        }
+        // the longer string is left of the shorter one iff it continues with 0
+        if (length1 > length2) {
+            return ((string1 >>> (length1 - commonLength - 1)) & 1) == 0 ? -1
+                    : 1;
+        }
+        return ((string2 >>> (length2 - commonLength - 1)) & 1) == 0 ? 1 : -1;
+    }
+
+    private int compare(final int[] values1, final int offset1,
+            final int[] values2, final int offset2) {
+        final boolean top1 = values1[offset1] == TOP;
+        final boolean top2 = values2[offset2] == TOP;
+        if (top1 || top2) {
+            return Boolean.compare(top1, top2);
+        }
+        for (int component = components - 1; component >= 0; component--) {
+            final int comparison = compareStrings(values1[offset1 + component],
+                    values2[offset2 + component]);
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * determines the winning regions from this measure as
+     * <code>ProgressMeasure.getSolution()</code> does.
+     */
+    public final Solution getSolution() {
+        final Set<ParityVertex> winningRegionForA = new HashSet<>();
+        final Set<ParityVertex> winningRegionForB = new HashSet<>();
+        final Map<ParityVertex, ParityVertex> strategy = new ConcurrentHashMap<>();
+        for (int id = 0; id < vertexOfId.length; id++) {
+            if ((Player.B == player) == isTop(id)) {
+                winningRegionForA.add(vertexOfId[id]);
+            } else {
+                winningRegionForB.add(vertexOfId[id]);
+            }
+        }
+        return new Solution(winningRegionForA, winningRegionForB, Player.A,
+                strategy);
+    }
+}
@@ -0,0 +1,57 @@
+package parisolve.backend.algorithms.helper;
+
+import parisolve.backend.Player;
+
+/**
+ * a tangle as introduced by van Dijk - Attracting Tangles to Solve Parity
+ * Games (2018): a strongly connected set of vertices in which
+ * <code>player</code> has a strategy to win every play staying in the tangle.
+ * The opponent can therefore only avoid losing by leaving the tangle through
+ * one of its escapes.
+ *
+ * Vertices, strategy and escapes are kept as ids of a
+ * <code>CompactArena</code> in arrays, so that many tangles can be stored.
+ */
+public final class Tangle {
+    private final Player player;
+    private final int[] vertices;
+    private final int[] strategy;
+    private final int[] escapes;
+
+    /**
+     * @param player
+     *            the player winning the plays staying in the tangle
+     * @param vertices
+     *            the ids of the vertices of the tangle
+     * @param strategy
+     *            the successor <code>player</code> moves to for each vertex
+     *            in <code>vertices</code> at the same index or
+     *            <code>IndexedSolution.NO_SUCCESSOR</code> for the vertices
+     *            of the opponent
+     * @param escapes
+     *            the vertices outside the tangle the opponent can move to
+     */
+    public Tangle(final Player player, final int[] vertices,
+            final int[] strategy, final int[] escapes) {
+        this.player = player;
+        this.vertices = vertices;
+        this.strategy = strategy;
+        this.escapes = escapes;
+    }
+
+    public Player getPlayer() {
+        return player;
+    }
+
+    public int[] getVertices() {
+        return vertices;
+    }
+
+    public int[] getStrategy() {
+        return strategy;
+    }
+
+    public int[] getEscapes() {
+        return escapes;
+    }
+}
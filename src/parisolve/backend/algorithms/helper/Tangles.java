@@ -0,0 +1,99 @@
+package parisolve.backend.algorithms.helper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import parisolve.backend.CompactArena;
+
+/**
+ * the tangles learned for a <code>CompactArena</code>. Tangles are identified
+ * by the order in which they are added. For every vertex, the ids of the
+ * tangles which can be escaped to this vertex are indexed, so that
+ * <code>IndexedAttractorCalculator</code> can find the tangles affected by
+ * attracting a vertex.
+ */
+public class Tangles {
+    private final List<Tangle> tangles = new ArrayList<>();
+    private final BitSet removed = new BitSet();
+    /**
+     * the ids of the tangles escaping to each vertex. Only the first
+     * <code>numberOfTanglesEscapingTo[vertex]</code> entries are valid.
+     */
+    private final int[][] tanglesEscapingTo;
+    private final int[] numberOfTanglesEscapingTo;
+
+    /**
+     * @param arena
+     *            the arena whose ids the tangles are given in
+     */
+    public Tangles(final CompactArena arena) {
+        tanglesEscapingTo = new int[arena.size()][];
+        numberOfTanglesEscapingTo = new int[arena.size()];
+    }
+
+    /**
+     * @return the id of the tangle added
+     */
+    public final int add(final Tangle tangle) {
+        final int id = tangles.size();
+        tangles.add(tangle);
+        for (final int escape : tangle.getEscapes()) {
+            int[] ids = tanglesEscapingTo[escape];
+            if (ids == null) {
+                ids = new int[2];
+            } else if (numberOfTanglesEscapingTo[escape] == ids.length) {
+                ids = Arrays.copyOf(ids, 2 * ids.length);
+            }
+            ids[numberOfTanglesEscapingTo[escape]++] = id;
+            tanglesEscapingTo[escape] = ids;
+        }
+        return id;
+    }
+
+    /**
+     * @return the number of tangles added, including the removed ones
+     */
+    public final int size() {
+        return tangles.size();
+    }
+
+    public final Tangle get(final int id) {
+        return tangles.get(id);
+    }
+
+    public final boolean isRemoved(final int id) {
+        return removed.get(id);
+    }
+
+    /**
+     * @return the ids of the tangles escaping to <code>vertex</code> in the
+     *         first <code>getNumberOfTanglesEscapingTo(vertex)</code> entries
+     */
+    public final int[] getTanglesEscapingTo(final int vertex) {
+        return tanglesEscapingTo[vertex];
+    }
+
+    public final int getNumberOfTanglesEscapingTo(final int vertex) {
+        return numberOfTanglesEscapingTo[vertex];
+    }
+
+    /**
+     * removes all tangles which contain one of <code>vertices</code>, e.g.
+     * because these vertices have been solved.
+     */
+    public final void removeIntersecting(final Subgame vertices) {
+        for (int id = 0; id < tangles.size(); id++) {
+            if (removed.get(id)) {
+                continue;
+            }
+            for (final int vertex : tangles.get(id).getVertices()) {
+                if (vertices.contains(vertex)) {
+                    removed.set(id);
+                    break;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package parisolve.backend.algorithms.preprocessor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import parisolve.backend.Arena;
+import parisolve.backend.LinkedArena;
+import parisolve.backend.ParityVertex;
+import parisolve.backend.Player;
+import parisolve.backend.algorithms.helper.AttractorCalculator;
+import parisolve.backend.algorithms.helper.AttractorStrategyPair;
+import parisolve.backend.algorithms.helper.LiftableFactory;
+import parisolve.backend.algorithms.helper.Solution;
+import parisolve.backend.algorithms.helper.StronglyConnectectedComponentsFinder;
+
+import com.google.common.collect.BiMap;
+import com.google.common.collect.HashBiMap;
+
+/**
+ * solves an arena by decomposing it into its strongly connected components.
+ *
+ * A play starting in a bottom component, i.e. one without edges to other
+ * components, never leaves it, so bottom components can be solved on their
+ * own. Once they are solved, the attractors of their winning regions are
+ * removed from the arena. What is left of the components above them is then
+ * closed in the sense that no player profits from leaving it. These residual
+ * components can be solved on their own as well.
+ *
+ * Components are therefore solved in waves: each component is assigned the
+ * length of the longest path to a bottom component in the condensation of
+ * the arena. Components of the same wave have no edges between each other, so
+ * they are solved in parallel if <code>GraphPreprocessor</code> can provide a
+ * solver instance per component.
+ */
+public class ComponentDecomposer {
+    private ComponentDecomposer() {
+        // disable
+    }
+
+    protected static Solution solveDecomposedArena(final Arena arena,
+            final GraphPreprocessor preprocessor) {
+        final List<Set<ParityVertex>> components = StronglyConnectectedComponentsFinder
+                .getStronglyConnectedComponents(arena);
+        if (components.size() == 1) {
+            return preprocessor.solveComponent(arena);
+        }
+
+        final List<List<Set<ParityVertex>>> waves = getWaves(components);
+
+        final Set<ParityVertex> winningForA = new HashSet<>();
+        final Set<ParityVertex> winningForB = new HashSet<>();
+        final Map<ParityVertex, ParityVertex> strategy = new ConcurrentHashMap<>();
+        final LiftableFactory liftableFactory = new LiftableFactory(
+                arena.getVertices());
+        // the vertices which are neither solved nor attracted by a solved
+        // region yet
+        final Set<ParityVertex> remaining = arena.getVertices();
+
+        for (final List<Set<ParityVertex>> wave : waves) {
+            final Stream<Set<ParityVertex>> residualComponents = (preprocessor
+                    .canSolveInParallel() ? wave.parallelStream() : wave
+                    .stream());
+            final List<Solution> solutions = residualComponents
+                    .map(component -> solveResidualComponent(component,
+                            remaining, preprocessor))
+                    .filter(solution -> solution != null)
+                    .collect(Collectors.toList());
+
+            final Set<ParityVertex> waveWinningForA = new HashSet<>();
+            final Set<ParityVertex> waveWinningForB = new HashSet<>();
+            for (final Solution solution : solutions) {
+                waveWinningForA.addAll(solution.getWinningRegionFor(Player.A));
+                waveWinningForB.addAll(solution.getWinningRegionFor(Player.B));
+                strategy.putAll(solution.getStrategy());
+            }
+            removeAttractor(waveWinningForA, Player.A, remaining, winningForA,
+                    strategy, liftableFactory);
+            removeAttractor(waveWinningForB, Player.B, remaining, winningForB,
+                    strategy, liftableFactory);
+        }
+
+        return new Solution(winningForA, winningForB, Player.A, strategy);
+    }
+
+    /**
+     * groups the components into waves, such that every component only has
+     * edges to components of earlier waves and itself.
+     *
+     * @param components
+     *            the strongly connected components in reverse topological
+     *            order, as returned by Tarjan's algorithm
+     * @return the waves, starting with the bottom components
+     */
+    protected static List<List<Set<ParityVertex>>> getWaves(
+            final List<Set<ParityVertex>> components) {
+        final Map<ParityVertex, Integer> waveOfVertex = new HashMap<>();
+        final List<List<Set<ParityVertex>>> waves = new ArrayList<>();
+        for (final Set<ParityVertex> component : components) {
+            int wave = 0;
+            for (final ParityVertex vertex : component) {
+                for (final ParityVertex successor : vertex.getSuccessors()) {
+                    final Integer waveOfSuccessor = waveOfVertex.get(successor);
+                    if (waveOfSuccessor != null) {
+                        wave = Math.max(wave, waveOfSuccessor + 1);
+                    }
+                }
+            }
+            for (final ParityVertex vertex : component) {
+                waveOfVertex.put(vertex, wave);
+            }
+            if (wave == waves.size()) {
+                waves.add(new ArrayList<>());
+            }
+            waves.get(wave).add(component);
+        }
+        return waves;
+    }
+
+    /**
+     * solves the part of <code>component</code> which is still
+     * <code>remaining</code>.
+     *
+     * @return the solution on the vertices of the original arena or
+     *         <code>null</code> if nothing of <code>component</code> is left
+     */
+    protected static Solution solveResidualComponent(
+            final Set<ParityVertex> component,
+            final Set<ParityVertex> remaining,
+            final GraphPreprocessor preprocessor) {
+        final BiMap<ParityVertex, ParityVertex> vertexCorrespondence = HashBiMap
+                .create();
+        final LinkedArena arenaToSolve = new LinkedArena();
+        for (final ParityVertex vertex : component) {
+            if (!remaining.contains(vertex)) {
+                continue;
+            }
+            arenaToSolve.addVertex(vertex.getName(), vertex.getPriority(),
+                    vertex.getPlayer());
+            vertexCorrespondence.put(vertex,
+                    arenaToSolve.getVertex(vertex.getName()));
+        }
+        if (arenaToSolve.isEmpty()) {
+            return null;
+        }
+        for (final ParityVertex vertex : vertexCorrespondence.keySet()) {
+            for (final ParityVertex successor : vertex.getSuccessors()) {
+                if (vertexCorrespondence.containsKey(successor)) {
+                    arenaToSolve.addEdge(vertex.getName(), successor.getName());
+                }
+            }
+        }
+
+        final Solution solution = preprocessor.solveComponent(arenaToSolve);
+        final BiMap<ParityVertex, ParityVertex> original = vertexCorrespondence
+                .inverse();
+        return new Solution(new HashSet<>(SelfcycleRemover.getAll(
+                solution.getWinningRegionFor(Player.A), original)),
+                new HashSet<>(SelfcycleRemover.getAll(
+                        solution.getWinningRegionFor(Player.B), original)),
+                Player.A, SelfcycleRemover.getAll(solution.getStrategy(),
+                        original));
+    }
+
+    /**
+     * adds the attractor of <code>player</code> to <code>vertices</code> to
+     * <code>winningRegion</code> and removes it from <code>remaining</code>.
+     */
+    protected static void removeAttractor(final Set<ParityVertex> vertices,
+            final Player player, final Set<ParityVertex> remaining,
+            final Set<ParityVertex> winningRegion,
+            final Map<ParityVertex, ParityVertex> strategy,
+            final LiftableFactory liftableFactory) {
+        final AttractorStrategyPair attractor = AttractorCalculator
+                .getAttractor(vertices, player, remaining, liftableFactory);
+        strategy.putAll(attractor.getStrategy());
+        winningRegion.addAll(attractor.getAttractor());
+        remaining.removeAll(attractor.getAttractor());
+    }
+}
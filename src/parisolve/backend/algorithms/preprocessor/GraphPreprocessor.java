@@ -3,6 +3,7 @@ package parisolve.backend.algorithms.preprocessor;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.function.Supplier;
 
 import parisolve.backend.Arena;
 import parisolve.backend.Player;
@@ -11,23 +12,62 @@ import parisolve.backend.algorithms.helper.Solution;
 
 public class GraphPreprocessor implements Solver {
     public enum Optimization {
-        VERTEX_COMPRESSION, SELFCYCLE_REMOVAL /* , SCC_DECOMPOSITION */;
+        VERTEX_COMPRESSION, SELFCYCLE_REMOVAL, SCC_DECOMPOSITION, PRIORITY_COMPRESSION, PRIORITY_PROPAGATION;
     }
 
     private Solver actualSolver;
+    /**
+     * creates a fresh instance of the actual solver for every component when
+     * applying <code>SCC_DECOMPOSITION</code>, so components can be solved in
+     * parallel. <code>null</code> if only <code>actualSolver</code> may be
+     * used.
+     */
+    private Supplier<? extends Solver> solverSupplier;
     private Set<Optimization> optimizationsToApply = new HashSet<>();
 
     public GraphPreprocessor(final Solver solver) {
         this.actualSolver = solver;
     }
 
+    /**
+     * @param solverSupplier
+     *            gives a new instance of the solver to use every time it is
+     *            called
+     */
+    public GraphPreprocessor(final Supplier<? extends Solver> solverSupplier) {
+        this(solverSupplier.get());
+        this.solverSupplier = solverSupplier;
+    }
+
     public void addOptimization(Optimization optimization) {
         optimizationsToApply.add(optimization);
     }
 
     @Override
     public Solution getSolution(Arena arena) {
-        return solveCompressedArena(arena);
+        return solvePropagatedArena(arena);
+    }
+
+    protected Solution solvePropagatedArena(Arena arena) {
+        if (arena.isEmpty()) {
+            return new Solution(Collections.emptySet(), Player.A);
+        }
+        if (optimizationsToApply.contains(Optimization.PRIORITY_PROPAGATION)) {
+            return PriorityPropagator.solvePropagatedArena(arena, this);
+        } else {
+            return solvePriorityCompressedArena(arena);
+        }
+    }
+
+    protected Solution solvePriorityCompressedArena(Arena arena) {
+        if (arena.isEmpty()) {
+            return new Solution(Collections.emptySet(), Player.A);
+        }
+        if (optimizationsToApply.contains(Optimization.PRIORITY_COMPRESSION)) {
+            return PriorityCompressor.solvePriorityCompressedArena(arena, this);
+        } else {
+            return solveCompressedArena(arena);
+        }
     }
 
     int arenaSize = Integer.MIN_VALUE;
@@ -62,6 +102,20 @@ public class GraphPreprocessor implements Solver {
         if (arena.size() < arenaSize) {
             return solveCompressedArena(arena);
         }
+        if (optimizationsToApply.contains(Optimization.SCC_DECOMPOSITION)) {
+            return ComponentDecomposer.solveDecomposedArena(arena, this);
+        }
+        return actualSolver.getSolution(arena);
+    }
+
+    boolean canSolveInParallel() {
+        return solverSupplier != null;
+    }
+
+    Solution solveComponent(Arena arena) {
+        if (canSolveInParallel()) {
+            return solverSupplier.get().getSolution(arena);
+        }
         return actualSolver.getSolution(arena);
     }
 }
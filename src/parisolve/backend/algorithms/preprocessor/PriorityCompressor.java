@@ -0,0 +1,125 @@
+package parisolve.backend.algorithms.preprocessor;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+import parisolve.backend.Arena;
+import parisolve.backend.LinkedArena;
+import parisolve.backend.ParityVertex;
+import parisolve.backend.Player;
+import parisolve.backend.algorithms.helper.Solution;
+
+import com.google.common.collect.BiMap;
+import com.google.common.collect.HashBiMap;
+
+/**
+ * solves an arena after renumbering its priorities to a dense range.
+ *
+ * The winner of a play only depends on the parity of the maximal priority
+ * seen infinitely often. Therefore, priorities can be replaced by others as
+ * long as their order and parity is preserved. Furthermore, two priorities of
+ * the same parity can be merged, if no priority of the other parity lies
+ * between them: the maximal priority of a play is then of the same parity
+ * whichever of the two it is.
+ *
+ * The smallest priority is kept as 0 or 1 according to its parity and every
+ * other priority is mapped to the priority of the next smaller one, increased
+ * by one if their parities differ. For example, the priorities 5, 7, 8 and 11
+ * become 1, 1, 2 and 3. Solvers allocating arrays of the size of the maximal
+ * priority and recursing over priorities profit from this.
+ */
+public class PriorityCompressor {
+    private PriorityCompressor() {
+        // disable
+    }
+
+    protected static Solution solvePriorityCompressedArena(final Arena arena,
+            final GraphPreprocessor preprocessor) {
+        final Map<Integer, Integer> compressedPriorities = getCompressedPriorities(arena);
+        boolean changed = false;
+        for (final Map.Entry<Integer, Integer> entry : compressedPriorities
+                .entrySet()) {
+            changed |= !entry.getKey().equals(entry.getValue());
+        }
+        if (!changed) {
+            return preprocessor.solveCompressedArena(arena);
+        }
+
+        final Map<ParityVertex, Integer> priorities = new HashMap<>();
+        for (final ParityVertex vertex : arena) {
+            priorities.put(vertex,
+                    compressedPriorities.get(vertex.getPriority()));
+        }
+        return solveWithPriorities(arena, priorities,
+                preprocessor::solveCompressedArena);
+    }
+
+    /**
+     * @return the priority each priority of <code>arena</code> is mapped to
+     */
+    protected static Map<Integer, Integer> getCompressedPriorities(
+            final Arena arena) {
+        final SortedSet<Integer> priorities = new TreeSet<>();
+        for (final ParityVertex vertex : arena) {
+            priorities.add(vertex.getPriority());
+        }
+        final Map<Integer, Integer> compressedPriorities = new HashMap<>();
+        int compressedPriority = -1;
+        for (final int priority : priorities) {
+            if (compressedPriority < 0) {
+                compressedPriority = priority % 2;
+            } else if ((compressedPriority - priority) % 2 != 0) {
+                compressedPriority++;
+            }
+            compressedPriorities.put(priority, compressedPriority);
+        }
+        return compressedPriorities;
+    }
+
+    /**
+     * solves a copy of <code>arena</code> in which every vertex has the
+     * priority given in <code>priorities</code> and maps the solution back to
+     * the vertices of <code>arena</code>. The new priorities have to be chosen
+     * such that the copy has the same winning regions as <code>arena</code>.
+     *
+     * @param arena
+     *            the arena to solve
+     * @param priorities
+     *            the new priority of each vertex of <code>arena</code>
+     * @param solver
+     *            the solver to solve the copy with
+     * @return the solution on the vertices of <code>arena</code>
+     */
+    protected static Solution solveWithPriorities(final Arena arena,
+            final Map<ParityVertex, Integer> priorities,
+            final Function<Arena, Solution> solver) {
+        final BiMap<ParityVertex, ParityVertex> vertexCorrespondence = HashBiMap
+                .create();
+        final LinkedArena arenaToSolve = new LinkedArena();
+        for (final ParityVertex vertex : arena) {
+            arenaToSolve.addVertex(vertex.getName(), priorities.get(vertex),
+                    vertex.getPlayer());
+            vertexCorrespondence.put(vertex,
+                    arenaToSolve.getVertex(vertex.getName()));
+        }
+        for (final ParityVertex vertex : arena) {
+            for (final ParityVertex successor : vertex.getSuccessors()) {
+                arenaToSolve.addEdge(vertex.getName(), successor.getName());
+            }
+        }
+
+        final Solution solution = solver.apply(arenaToSolve);
+        final BiMap<ParityVertex, ParityVertex> original = vertexCorrespondence
+                .inverse();
+        return new Solution(new HashSet<>(SelfcycleRemover.getAll(
+                solution.getWinningRegionFor(Player.A), original)),
+                new HashSet<>(SelfcycleRemover.getAll(
+                        solution.getWinningRegionFor(Player.B), original)),
+                Player.A, SelfcycleRemover.getAll(solution.getStrategy(),
+                        original));
+    }
+}
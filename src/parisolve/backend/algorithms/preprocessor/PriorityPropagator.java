@@ -0,0 +1,111 @@
+package parisolve.backend.algorithms.preprocessor;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import parisolve.backend.Arena;
+import parisolve.backend.ParityVertex;
+import parisolve.backend.algorithms.helper.LiftableFactory;
+import parisolve.backend.algorithms.helper.Solution;
+
+/**
+ * solves an arena after propagating priorities along its edges, as PGSolver
+ * does.
+ *
+ * Whenever a play visits a vertex, it visits one of its successors next and,
+ * unless it has just started, came from one of its predecessors. If a play
+ * visits a vertex infinitely often, it therefore visits a successor with at
+ * least the minimal priority of all successors infinitely often, and the same
+ * holds for predecessors. Raising the priority of a vertex to this minimum
+ * thus does not change the maximal priority seen infinitely often in any play,
+ * so the winning regions and strategies stay the same.
+ *
+ * The priorities are raised until no further priority can be raised. Vertices
+ * then tend to share priorities with their neighbours, so fewer distinct
+ * priorities remain, especially if <code>PRIORITY_COMPRESSION</code> is applied
+ * afterwards.
+ */
+public class PriorityPropagator {
+    private PriorityPropagator() {
+        // disable
+    }
+
+    protected static Solution solvePropagatedArena(final Arena arena,
+            final GraphPreprocessor preprocessor) {
+        final Map<ParityVertex, Integer> priorities = new HashMap<>();
+        final boolean changed = propagatePriorities(arena, priorities);
+        if (!changed) {
+            return preprocessor.solvePriorityCompressedArena(arena);
+        }
+        return PriorityCompressor.solveWithPriorities(arena, priorities,
+                preprocessor::solvePriorityCompressedArena);
+    }
+
+    /**
+     * determines the propagated priority of every vertex of
+     * <code>arena</code>.
+     *
+     * @param arena
+     *            the arena to propagate the priorities of
+     * @param priorities
+     *            map to store the propagated priority of every vertex in
+     * @return whether any priority has been raised
+     */
+    protected static boolean propagatePriorities(final Arena arena,
+            final Map<ParityVertex, Integer> priorities) {
+        final Map<ParityVertex, Set<ParityVertex>> predecessorMap = LiftableFactory
+                .getPredecessorMap(arena.getVertices());
+        for (final ParityVertex vertex : arena) {
+            priorities.put(vertex, vertex.getPriority());
+        }
+
+        boolean changed = false;
+        final Deque<ParityVertex> queue = new ArrayDeque<>(arena);
+        final Set<ParityVertex> queued = new HashSet<>(arena);
+        while (!queue.isEmpty()) {
+            final ParityVertex vertex = queue.poll();
+            queued.remove(vertex);
+            final Set<ParityVertex> predecessors = predecessorMap.getOrDefault(
+                    vertex, Collections.emptySet());
+            final int priority = Math.max(priorities.get(vertex), Math.max(
+                    getMinimalPriority(vertex.getSuccessors(), priorities),
+                    getMinimalPriority(predecessors, priorities)));
+            if (priority == priorities.get(vertex)) {
+                continue;
+            }
+            priorities.put(vertex, priority);
+            changed = true;
+            // the minima of the neighbours may have risen
+            for (final ParityVertex neighbour : vertex.getSuccessors()) {
+                if (queued.add(neighbour)) {
+                    queue.add(neighbour);
+                }
+            }
+            for (final ParityVertex neighbour : predecessors) {
+                if (queued.add(neighbour)) {
+                    queue.add(neighbour);
+                }
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * @return the minimal priority of <code>vertices</code> or
+     *         <code>Integer.MIN_VALUE</code> if there are none
+     */
+    private static int getMinimalPriority(
+            final Set<ParityVertex> vertices,
+            final Map<ParityVertex, Integer> priorities) {
+        int minimalPriority = Integer.MAX_VALUE;
+        for (final ParityVertex vertex : vertices) {
+            minimalPriority = Math.min(minimalPriority, priorities.get(vertex));
+        }
+        return vertices.isEmpty() ? Integer.MIN_VALUE : minimalPriority;
+    }
+}
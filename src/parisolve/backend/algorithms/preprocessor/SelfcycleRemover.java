@@ -95,45 +95,72 @@ public class SelfcycleRemover {
         return arenaToSolve;
     }
 
+    /**
+     * removes the attractors of the selfcycles one of the players can be sure
+     * to stay in forever. Each attractor is calculated in the subgame left by
+     * the ones removed before, as the attractors of two selfcycles in the
+     * whole arena may together attract a vertex which neither attracts on its
+     * own. As removing an attractor may leave a selfcycle as the only edge of
+     * a vertex, this is repeated until no selfcycle is removed anymore. This
+     * way, every vertex left keeps a successor other than itself.
+     */
     protected static void solveSelfcycles(final Arena arena,
             Set<ParityVertex> winningForA, Set<ParityVertex> winningForB,
             Map<ParityVertex, ParityVertex> strategy) {
         LiftableFactory liftableFactory = new LiftableFactory(
                 arena.getVertices());
-
-        for (final ParityVertex vertex : arena) {
-            if (winningForA.contains(vertex) || winningForB.contains(vertex)) {
-                continue;
-            }
-            if (vertex.getSuccessors().contains(vertex)) {
+        final Set<ParityVertex> remaining = new HashSet<>(arena.getVertices());
+
+        boolean removedSelfcycle;
+        do {
+            removedSelfcycle = false;
+            for (final ParityVertex vertex : arena) {
+                if (!remaining.contains(vertex)
+                        || !vertex.getSuccessors().contains(vertex)) {
+                    continue;
+                }
                 // selfcycle
                 final Player prioritysPlayer = Player
                         .getPlayerForPriority(vertex.getPriority());
                 if (prioritysPlayer == vertex.getPlayer()
-                        || vertex.getSuccessors().size() == 1) {
+                        || vertex.getSuccessors().stream()
+                                .filter(remaining::contains).count() == 1) {
                     // either the player wants to take this edge because it is
                     // good for her or she must take it
-                    removeAttractorOfSelfcycle(arena, winningForA, winningForB,
-                            strategy, liftableFactory, vertex, prioritysPlayer);
+                    remaining.removeAll(removeAttractorOfSelfcycle(remaining,
+                            winningForA, winningForB, strategy,
+                            liftableFactory, vertex, prioritysPlayer));
+                    removedSelfcycle = true;
                 }
             }
-        }
+        } while (removedSelfcycle);
     }
 
-    protected static void removeAttractorOfSelfcycle(final Arena arena,
-            Set<ParityVertex> winningForA, Set<ParityVertex> winningForB,
+    /**
+     * adds the attractor of <code>vertex</code> in the subgame on
+     * <code>remaining</code> to the winning region of
+     * <code>vertexPlayer</code>.
+     * 
+     * @return the attractor
+     */
+    protected static Set<ParityVertex> removeAttractorOfSelfcycle(
+            final Set<ParityVertex> remaining, Set<ParityVertex> winningForA,
+            Set<ParityVertex> winningForB,
             Map<ParityVertex, ParityVertex> strategy,
             LiftableFactory liftableFactory, final ParityVertex vertex,
             final Player vertexPlayer) {
-        AttractorStrategyPair attractor = AttractorCalculator
-                .getAttractor(
-                        new ImmutableSet.Builder<ParityVertex>().add(vertex)
-                                .build(), vertexPlayer, arena, liftableFactory);
+        AttractorStrategyPair attractor = AttractorCalculator.getAttractor(
+                new ImmutableSet.Builder<ParityVertex>().add(vertex).build(),
+                vertexPlayer, remaining, liftableFactory);
         strategy.putAll(attractor.getStrategy());
+        if (vertex.getPlayer() == vertexPlayer) {
+            strategy.put(vertex, vertex);
+        }
         if (vertexPlayer == Player.A) {
             winningForA.addAll(attractor.getAttractor());
         } else {
             winningForB.addAll(attractor.getAttractor());
         }
+        return attractor.getAttractor();
     }
 }
@@ -16,6 +16,8 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import parisolve.backend.Arena;
+import parisolve.backend.ArenaBuilder;
+import parisolve.backend.CompactArena;
 import parisolve.backend.LinkedArena;
 import parisolve.backend.ParityVertex;
 import parisolve.backend.Player;
@@ -54,15 +56,51 @@ public final class ArenaManager {
      *             or the content did not conform to the default charset
      */
     public static Arena loadArena(final String fileName) throws IOException {
+        final LinkedArena arena = new LinkedArena();
+        fillArenaFromFile(fileName, arena);
+        return arena;
+    }
+
+    /**
+     * opens file specified by <code>fileName</code> and returns the arena
+     * specified within as a <code>CompactArena</code>, which needs far less
+     * memory than the arena returned by <code>loadArena()</code>.
+     * 
+     * @param fileName
+     *            arenas file's filename
+     * @return arena stored in file specified by <code>fileName</code>
+     * @throws IOException
+     *             the file specified by <code>fileName</code> could not be read
+     *             or the content did not conform to the default charset
+     */
+    public static CompactArena loadCompactArena(final String fileName)
+            throws IOException {
+        final CompactArena.Builder builder = new CompactArena.Builder();
+        fillArenaFromFile(fileName, builder);
+        return builder.build();
+    }
+
+    /**
+     * fills <code>arena</code> with the vertices and edges specified in the
+     * file given, choosing the format by the file's extension.
+     * 
+     * @param fileName
+     *            arenas file's filename
+     * @param arena
+     *            arena to fill with vertices and edges
+     * @throws IOException
+     *             the file specified by <code>fileName</code> could not be read
+     *             or the content did not conform to the default charset
+     */
+    private static void fillArenaFromFile(final String fileName,
+            final ArenaBuilder arena) throws IOException {
         final List<String> lines = Files.readAllLines(Paths.get(fileName),
                 Charset.defaultCharset());
-        final LinkedArena arena = new LinkedArena();
         if (isArenaFile(fileName)) {
             fillArenaFromLinesInDotFormat(lines, arena);
         } else {
             fillArenaFromLinesInTxtFormat(lines, arena);
         }
-        return arena;
     }
 
     /**
@@ -81,8 +119,57 @@ public final class ArenaManager {
      */
     public static Arena generateRandomArena(final int numberOfVertices,
             final double averageDegree, final int maxPriority) {
+        return generateRandomArena(numberOfVertices, averageDegree,
+                maxPriority, new Random(System.currentTimeMillis()));
+    }
+
+    /**
+     * does the same as <code>generateRandomArena()</code> but draws from
+     * <code>random</code>, so the same arena can be generated again.
+     * 
+     * @param numberOfVertices
+     *            the number of vertices in the generated arena
+     * @param averageDegree
+     *            the average degree aimed for
+     * @param maxPriority
+     *            the maximal priority to assign to a vertex
+     * @param random
+     *            the source of randomness
+     * @return a newly generated arena
+     */
+    public static Arena generateRandomArena(final int numberOfVertices,
+            final double averageDegree, final int maxPriority,
+            final Random random) {
         final LinkedArena arena = new LinkedArena();
-        final Random random = new Random(System.currentTimeMillis());
+        fillRandomArena(arena, numberOfVertices, averageDegree, maxPriority,
+                random);
+        return arena;
+    }
+
+    /**
+     * does the same as <code>generateRandomArena()</code> but returns a
+     * <code>CompactArena</code>, which is preferable for large arenas.
+     * 
+     * @param numberOfVertices
+     *            the number of vertices in the generated arena
+     * @param averageDegree
+     *            the average degree aimed for
+     * @param maxPriority
+     *            the maximal priority to assign to a vertex
+     * @return a newly generated arena
+     */
+    public static CompactArena generateRandomCompactArena(
+            final int numberOfVertices, final double averageDegree,
+            final int maxPriority) {
+        final CompactArena.Builder builder = new CompactArena.Builder();
+        fillRandomArena(builder, numberOfVertices, averageDegree, maxPriority,
+                new Random(System.currentTimeMillis()));
+        return builder.build();
+    }
+
+    private static void fillRandomArena(final ArenaBuilder arena,
+            final int numberOfVertices, final double averageDegree,
+            final int maxPriority, final Random random) {
         for (int i = 0; i < numberOfVertices; i++) {
             final int priority = random.nextInt(maxPriority) + 1;
             final Player player = Player
@@ -99,8 +186,6 @@ public final class ArenaManager {
                 arena.addEdge("v" + i, "v" + toVertex);
             }
         }
-
-        return arena;
     }
 
     public static Pattern VERTEX_PATTERN = Pattern
@@ -119,7 +204,7 @@ public final class ArenaManager {
      *            arena to fill with vertices and edges
      */
     private static void fillArenaFromLinesInDotFormat(final List<String> lines,
-            final LinkedArena arena) {
+            final ArenaBuilder arena) {
         for (final String line : lines) {
             final Matcher vertexMatcher = VERTEX_PATTERN.matcher(line);
             if (vertexMatcher.find()) {
@@ -155,7 +240,7 @@ public final class ArenaManager {
      *            arena to fill with vertices and edges
      */
     private static void fillArenaFromLinesInTxtFormat(final List<String> lines,
-            final LinkedArena arena) {
+            final ArenaBuilder arena) {
         for (final String line : lines) {
             final Matcher vertexMatcher = LINE_PATTERN.matcher(line);
             if (vertexMatcher.find()) {
@@ -2,24 +2,47 @@ package parisolve;
 
 import java.io.IOException;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.junit.Assert;
 import org.junit.Test;
 
 import parisolve.backend.Arena;
+import parisolve.backend.CompactArena;
 import parisolve.backend.ParityVertex;
 import parisolve.backend.Player;
 import parisolve.backend.algorithms.AlgorithmManager;
+import parisolve.backend.algorithms.DiscreteStrategyImprovementAlgorithm;
+import parisolve.backend.algorithms.DiscreteStrategyImprovementAlgorithm.SwitchingRule;
+import parisolve.backend.algorithms.FixpointIterationAlgorithm;
+import parisolve.backend.algorithms.ParallelRecursiveAlgorithm;
+import parisolve.backend.algorithms.ParallelSmallMeasureAlgorithm;
 import parisolve.backend.algorithms.RecursiveAlgorithm;
 import parisolve.backend.algorithms.Solver;
+import parisolve.backend.algorithms.helper.AttractorCalculator;
+import parisolve.backend.algorithms.preprocessor.GraphPreprocessor;
+import parisolve.backend.algorithms.preprocessor.GraphPreprocessor.Optimization;
 import parisolve.io.ArenaManager;
+import parisolve.io.HardArenaGenerator;
+import parisolve.io.LinearArenaGenerator;
+import parisolve.io.TwoRingGenerator;
 
 /**
  * tests whether for the smallest arenas, all implemented algorithms return the
  * same result.
  */
 public class KnownArenasTest {
+    /**
+     * the seed of the random arenas and of randomised algorithms, so that a
+     * failure can be reproduced.
+     */
+    private static final long RANDOM_SEED = 42;
 
     @Test
     public final void testAUL() throws IOException, URISyntaxException {
@@ -41,6 +64,32 @@ public class KnownArenasTest {
         doTestArena("trivial.arena");
     }
 
+    @Test
+    public final void testPriorityZero() throws IOException,
+            URISyntaxException {
+        doTestArena("priority-zero.arena");
+    }
+
+    /**
+     * tests an arena in which the energy of a cycle of player B has to be
+     * lifted past the weights of many heavy selfcycles.
+     */
+    @Test
+    public final void testEnergyCycle() throws IOException,
+            URISyntaxException {
+        doTestArena("energy-cycle.arena");
+    }
+
+    /**
+     * tests an arena in which player A can leave the cycle of player B to the
+     * heavy selfcycles, some of which lead back to the cycle.
+     */
+    @Test
+    public final void testEnergyCycleExit() throws IOException,
+            URISyntaxException {
+        doTestArena("energy-cycle-exit.arena");
+    }
+
     @Test
     public final void testWikipedia() throws IOException, URISyntaxException {
         doTestArena("wikipedia.arena");
@@ -56,6 +105,265 @@ public class KnownArenasTest {
         doTestArena("Schewe-example.txt");
     }
 
+    @Test
+    public final void testHardArenas() {
+        doTestGeneratedArenas(new HardArenaGenerator());
+    }
+
+    @Test
+    public final void testTwoRingArenas() {
+        doTestGeneratedArenas(new TwoRingGenerator());
+    }
+
+    /**
+     * tests all algorithms with every attractor calculated in parallel, which
+     * must behave as the sequential calculation.
+     */
+    @Test
+    public final void testParallelAttractor() throws IOException,
+            URISyntaxException {
+        doTestWithParallelAttractor(AlgorithmManager.getAlgorithms());
+    }
+
+    /**
+     * tests the fixpoint iteration with every priority swept in parallel.
+     */
+    @Test
+    public final void testParallelFixpointIteration() throws IOException,
+            URISyntaxException {
+        final List<Solver> algorithms = Arrays.asList(
+                new FixpointIterationAlgorithm(4, 1),
+                new FixpointIterationAlgorithm(4, 3));
+        doTestKnownAndGeneratedArenas(algorithms);
+        doTestRandomArenas(algorithms);
+    }
+
+    /**
+     * tests the discrete strategy improvement with every switching rule and
+     * every level valued in parallel.
+     */
+    @Test
+    public final void testParallelDiscreteStrategyImprovement()
+            throws IOException, URISyntaxException {
+        final List<Solver> algorithms = new ArrayList<>();
+        for (final SwitchingRule switchingRule : SwitchingRule.values()) {
+            algorithms.add(new DiscreteStrategyImprovementAlgorithm(
+                    switchingRule, 4, 1, RANDOM_SEED));
+        }
+        doTestKnownAndGeneratedArenas(algorithms);
+        doTestRandomArenas(algorithms);
+    }
+
+    /**
+     * tests the parallel small progress measures with worklists split into
+     * tasks of single vertices, so that vertices are lifted concurrently.
+     */
+    @Test
+    public final void testParallelSmallMeasure() throws IOException,
+            URISyntaxException {
+        final List<Solver> algorithms = Arrays
+                .asList(new ParallelSmallMeasureAlgorithm(4, 1));
+        doTestKnownAndGeneratedArenas(algorithms);
+        doTestRandomArenas(algorithms);
+    }
+
+    /**
+     * tests the parallel recursive algorithm with every subgame forked.
+     */
+    @Test
+    public final void testParallelRecursive() throws IOException,
+            URISyntaxException {
+        final List<Solver> algorithms = Arrays
+                .asList(new ParallelRecursiveAlgorithm(4, 1));
+        doTestKnownAndGeneratedArenas(algorithms);
+        doTestRandomArenas(algorithms);
+    }
+
+    /**
+     * tests decomposing arenas into their strongly connected components, which
+     * are solved one by one by a single solver or in parallel by a new solver
+     * for each component.
+     */
+    @Test
+    public final void testSccDecomposition() throws IOException,
+            URISyntaxException {
+        final GraphPreprocessor sequentialPreprocessor = new GraphPreprocessor(
+                new RecursiveAlgorithm());
+        sequentialPreprocessor
+                .addOptimization(Optimization.SCC_DECOMPOSITION);
+        final GraphPreprocessor parallelPreprocessor = new GraphPreprocessor(
+                RecursiveAlgorithm::new);
+        parallelPreprocessor.addOptimization(Optimization.SCC_DECOMPOSITION);
+        final List<Solver> algorithms = Arrays.asList(sequentialPreprocessor,
+                parallelPreprocessor);
+        doTestKnownAndGeneratedArenas(algorithms);
+        doTestRandomArenas(algorithms);
+    }
+
+    /**
+     * tests compressing the priorities before solving.
+     */
+    @Test
+    public final void testPriorityCompression() throws IOException,
+            URISyntaxException {
+        doTestPreprocessing(Optimization.PRIORITY_COMPRESSION);
+    }
+
+    /**
+     * tests propagating the priorities before solving.
+     */
+    @Test
+    public final void testPriorityPropagation() throws IOException,
+            URISyntaxException {
+        doTestPreprocessing(Optimization.PRIORITY_PROPAGATION);
+    }
+
+    /**
+     * tests propagating the priorities and compressing the propagated ones
+     * before solving.
+     */
+    @Test
+    public final void testPriorityPropagationAndCompression()
+            throws IOException, URISyntaxException {
+        doTestPreprocessing(Optimization.PRIORITY_PROPAGATION,
+                Optimization.PRIORITY_COMPRESSION);
+    }
+
+    /**
+     * tests removing the selfcycles of an arena in which a vertex can only be
+     * attracted by the attractors of two selfcycles together.
+     */
+    @Test
+    public final void testSelfcycleRemoval() throws IOException,
+            URISyntaxException {
+        final GraphPreprocessor preprocessor = new GraphPreprocessor(
+                new RecursiveAlgorithm());
+        preprocessor.addOptimization(Optimization.SELFCYCLE_REMOVAL);
+        doTestArena(loadArenaFromResources("selfcycles.arena"),
+                loadCompactArenaFromResources("selfcycles.arena"),
+                Arrays.asList(preprocessor));
+    }
+
+    /**
+     * tests the given algorithms on the known and the generated arenas with
+     * every attractor calculated in parallel.
+     *
+     * @param algorithms
+     *            the algorithms to test
+     * @throws IOException
+     *             if an arena file does not exist
+     * @throws URISyntaxException
+     *             ignore this...
+     */
+    public final void doTestWithParallelAttractor(
+            final List<? extends Solver> algorithms) throws IOException,
+            URISyntaxException {
+        final int threshold = AttractorCalculator.getParallelThreshold();
+        AttractorCalculator.setParallelThreshold(1);
+        try {
+            doTestKnownAndGeneratedArenas(algorithms);
+        } finally {
+            AttractorCalculator.setParallelThreshold(threshold);
+        }
+    }
+
+    /**
+     * tests the given algorithms on the known arenas and the smallest arenas
+     * of the generators.
+     *
+     * @param algorithms
+     *            the algorithms to test
+     * @throws IOException
+     *             if an arena file does not exist
+     * @throws URISyntaxException
+     *             ignore this...
+     */
+    public final void doTestKnownAndGeneratedArenas(
+            final List<? extends Solver> algorithms) throws IOException,
+            URISyntaxException {
+        for (final String filename : Arrays.asList("aul.arena",
+                "determacy.arena", "example.arena", "trivial.arena",
+                "wikipedia.arena", "H43.txt", "Schewe-example.txt")) {
+            doTestArena(loadArenaFromResources(filename),
+                    loadCompactArenaFromResources(filename), algorithms);
+        }
+        for (final LinearArenaGenerator generator : Arrays.asList(
+                new HardArenaGenerator(), new TwoRingGenerator())) {
+            for (int n = 1; n <= 4; n++) {
+                final Arena arena = generator.generateArena(n);
+                doTestArena(arena,
+                        CompactArena.fromVertices(new ArrayList<>(arena)),
+                        algorithms);
+            }
+        }
+    }
+
+    /**
+     * tests <code>GraphPreprocessor</code> with the given optimizations on the
+     * known, generated and random arenas and on larger arenas of
+     * <code>HardArenaGenerator</code>, whose priorities are sparse.
+     *
+     * @param optimizations
+     *            the optimizations to apply
+     * @throws IOException
+     *             if an arena file does not exist
+     * @throws URISyntaxException
+     *             ignore this...
+     */
+    public final void doTestPreprocessing(final Optimization... optimizations)
+            throws IOException, URISyntaxException {
+        final GraphPreprocessor preprocessor = new GraphPreprocessor(
+                new RecursiveAlgorithm());
+        for (final Optimization optimization : optimizations) {
+            preprocessor.addOptimization(optimization);
+        }
+        final List<Solver> algorithms = Arrays.asList(preprocessor);
+        doTestKnownAndGeneratedArenas(algorithms);
+        doTestRandomArenas(algorithms);
+        final LinearArenaGenerator generator = new HardArenaGenerator();
+        for (int n = 5; n <= 10; n++) {
+            final Arena arena = generator.generateArena(n);
+            doTestArena(arena,
+                    CompactArena.fromVertices(new ArrayList<>(arena)),
+                    algorithms);
+        }
+    }
+
+    /**
+     * tests the given algorithms on random arenas, which are the same in
+     * every run.
+     *
+     * @param algorithms
+     *            the algorithms to test
+     */
+    public final void doTestRandomArenas(
+            final List<? extends Solver> algorithms) {
+        final Random random = new Random(RANDOM_SEED);
+        for (int i = 0; i < 100; i++) {
+            final Arena arena = ArenaManager.generateRandomArena(
+                    10 + random.nextInt(40), 2.5, 8, random);
+            doTestArena(arena,
+                    CompactArena.fromVertices(new ArrayList<>(arena)),
+                    algorithms);
+        }
+    }
+
+    /**
+     * tests whether all algorithms implemented give the same winning region on
+     * the smallest arenas of <code>generator</code>.
+     * 
+     * @param generator
+     *            the generator to generate arenas with
+     */
+    public final void doTestGeneratedArenas(
+            final LinearArenaGenerator generator) {
+        for (int n = 1; n <= 4; n++) {
+            final Arena arena = generator.generateArena(n);
+            doTestArena(arena,
+                    CompactArena.fromVertices(new ArrayList<>(arena)));
+        }
+    }
+
     /**
      * given a specific arena file, tests whether all algorithms implemented
      * give the same winning region on this arena.
@@ -69,22 +377,66 @@ public class KnownArenasTest {
      */
     public final void doTestArena(final String filename) throws IOException,
             URISyntaxException {
-        final Arena aulArena = loadArenaFromResources(filename);
+        doTestArena(loadArenaFromResources(filename),
+                loadCompactArenaFromResources(filename));
+    }
+
+    /**
+     * tests whether all algorithms implemented give the same winning region on
+     * an arena and its compact copy.
+     * 
+     * @param aulArena
+     *            the arena to solve
+     * @param compactArena
+     *            the same arena as <code>CompactArena</code>
+     */
+    public final void doTestArena(final Arena aulArena,
+            final Arena compactArena) {
+        doTestArena(aulArena, compactArena, AlgorithmManager.getAlgorithms());
+    }
+
+    /**
+     * tests whether the given algorithms give the same winning region on an
+     * arena and its compact copy as the reference algorithm.
+     * 
+     * @param aulArena
+     *            the arena to solve
+     * @param compactArena
+     *            the same arena as <code>CompactArena</code>
+     * @param algorithms
+     *            the algorithms to test
+     */
+    public final void doTestArena(final Arena aulArena,
+            final Arena compactArena, final List<? extends Solver> algorithms) {
         // TODO come up with a solution which is implementation independent
         final Solver referenceAlgorithm = new RecursiveAlgorithm();
         final Collection<? extends ParityVertex> referenceWinningRegion = referenceAlgorithm
                 .getSolution(aulArena).getWinningRegionFor(Player.A);
 
-        for (final Solver algorithm : AlgorithmManager.getAlgorithms()) {
+        final Set<String> referenceWinningNames = getNames(referenceWinningRegion);
+
+        for (final Solver algorithm : algorithms) {
             final Collection<? extends ParityVertex> winningRegion = algorithm
                     .getSolution(aulArena).getWinningRegionFor(Player.A);
             Assert.assertEquals("Algorithm "
                     + algorithm.getClass().getSimpleName()
                     + " did not solve correctly.", referenceWinningRegion,
                     winningRegion);
+            final Collection<? extends ParityVertex> compactWinningRegion = algorithm
+                    .getSolution(compactArena).getWinningRegionFor(Player.A);
+            Assert.assertEquals("Algorithm "
+                    + algorithm.getClass().getSimpleName()
+                    + " did not solve the compact arena correctly.",
+                    referenceWinningNames, getNames(compactWinningRegion));
         }
     }
 
+    private static Set<String> getNames(
+            final Collection<? extends ParityVertex> vertices) {
+        return vertices.stream().map(ParityVertex::getName)
+                .collect(Collectors.toSet());
+    }
+
     /**
      * loads an arena stored in the <code>resource</code> source-folder.
      * 
@@ -100,8 +452,29 @@ public class KnownArenasTest {
             throws IOException, URISyntaxException {
         // TODO I cannot even describe how ugly this is...
         // but it works and awaits a better solution
-        return ArenaManager.loadArena(Thread.currentThread()
-                .getContextClassLoader().getResource(filename).toURI()
-                .getPath().substring(1));
+        return ArenaManager.loadArena(getResourcePath(filename));
+    }
+
+    /**
+     * loads an arena stored in the <code>resource</code> source-folder as a
+     * <code>CompactArena</code>.
+     * 
+     * @param filename
+     *            filename of the arena-file
+     * @return the arena to be loaded
+     * @throws IOException
+     *             if the file does not exist
+     * @throws URISyntaxException
+     *             ignore this...
+     */
+    public static CompactArena loadCompactArenaFromResources(
+            final String filename) throws IOException, URISyntaxException {
+        return ArenaManager.loadCompactArena(getResourcePath(filename));
+    }
+
+    private static String getResourcePath(final String filename)
+            throws URISyntaxException {
+        return Thread.currentThread().getContextClassLoader()
+                .getResource(filename).toURI().getPath().substring(1);
     }
 }
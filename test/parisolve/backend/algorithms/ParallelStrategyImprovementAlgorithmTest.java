@@ -0,0 +1,102 @@
+package parisolve.backend.algorithms;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import parisolve.KnownArenasTest;
+import parisolve.backend.Arena;
+import parisolve.backend.CompactArena;
+import parisolve.backend.algorithms.IndexedStrategyImprovementAlgorithm.Improvement;
+import parisolve.backend.algorithms.helper.Subgame;
+import parisolve.io.HardArenaGenerator;
+import parisolve.io.LinearArenaGenerator;
+import parisolve.io.TwoRingGenerator;
+
+/**
+ * tests whether the update calculated in phases by
+ * <code>ParallelStrategyImprovementAlgorithm</code> gives the same
+ * estimations in every iteration as the sequential update of
+ * <code>IndexedStrategyImprovementAlgorithm</code>. As the cutoff is 1, every
+ * phase and the search for case 4 run in parallel.
+ */
+public class ParallelStrategyImprovementAlgorithmTest {
+
+    @Test
+    public final void testKnownArenas() throws IOException,
+            URISyntaxException {
+        for (final String filename : Arrays.asList("aul.arena",
+                "determacy.arena", "example.arena", "trivial.arena",
+                "wikipedia.arena", "H43.txt", "Schewe-example.txt")) {
+            doTestEstimations(KnownArenasTest
+                    .loadCompactArenaFromResources(filename));
+        }
+    }
+
+    @Test
+    public final void testGeneratedArenas() {
+        for (final LinearArenaGenerator generator : Arrays.asList(
+                new HardArenaGenerator(), new TwoRingGenerator())) {
+            for (int n = 1; n <= 4; n++) {
+                final Arena arena = generator.generateArena(n);
+                doTestEstimations(CompactArena.fromVertices(new ArrayList<>(
+                        arena)));
+            }
+        }
+    }
+
+    /**
+     * improves the default strategy of <code>arena</code> sequentially and in
+     * parallel side by side and compares the estimations of all ids after
+     * each iteration.
+     *
+     * @param arena
+     *            the arena to improve the strategy on
+     */
+    public final void doTestEstimations(final CompactArena arena) {
+        final Subgame vertices = Subgame.allVerticesOf(arena);
+        final Improvement sequential = new IndexedStrategyImprovementAlgorithm()
+                .createImprovement(vertices);
+        final Improvement parallel = new ParallelStrategyImprovementAlgorithm(
+                4, 1).createImprovement(vertices);
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            pool.invoke(ForkJoinTask.adapt(() -> {
+                sequential.start();
+                parallel.start();
+                boolean improved;
+                int iteration = 0;
+                do {
+                    assertSameEstimations(sequential, parallel, iteration);
+                    improved = sequential.improveOnce();
+                    Assert.assertEquals("Iteration " + iteration
+                            + " improved differently.", improved,
+                            parallel.improveOnce());
+                    iteration++;
+                } while (improved);
+                assertSameEstimations(sequential, parallel, iteration);
+            }));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static void assertSameEstimations(final Improvement sequential,
+            final Improvement parallel, final int iteration) {
+        Assert.assertEquals(sequential.estimation.size(),
+                parallel.estimation.size());
+        for (int id = 0; id < sequential.estimation.size(); id++) {
+            Assert.assertTrue("The estimation of id " + id + " after "
+                    + iteration + " iterations is "
+                    + parallel.estimation.get(id) + " instead of "
+                    + sequential.estimation.get(id) + ".",
+                    sequential.estimation.compare(id, parallel.estimation, id) == 0);
+        }
+    }
+}
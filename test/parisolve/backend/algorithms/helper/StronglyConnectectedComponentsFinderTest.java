@@ -0,0 +1,61 @@
+package parisolve.backend.algorithms.helper;
+
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import parisolve.backend.CompactArena;
+import parisolve.backend.Player;
+
+/**
+ * tests <code>StronglyConnectectedComponentsFinder</code> on arenas whose
+ * depth-first search path contains every vertex, which a recursive search
+ * could not handle within the size of the thread's stack.
+ */
+public class StronglyConnectectedComponentsFinderTest {
+    private static final int SIZE = 1000000;
+
+    @Test
+    public final void testLongChain() {
+        final CompactArena arena = buildChain(false);
+        final List<int[]> components = StronglyConnectectedComponentsFinder
+                .getStronglyConnectedComponents(arena);
+        Assert.assertEquals(SIZE, components.size());
+        // reverse topological order: the end of the chain is found first
+        for (int i = 0; i < SIZE; i++) {
+            Assert.assertEquals(1, components.get(i).length);
+            Assert.assertEquals(SIZE - 1 - i, components.get(i)[0]);
+        }
+    }
+
+    @Test
+    public final void testLongCycle() {
+        final CompactArena arena = buildChain(true);
+        final List<int[]> components = StronglyConnectectedComponentsFinder
+                .getStronglyConnectedComponents(arena);
+        Assert.assertEquals(1, components.size());
+        Assert.assertEquals(SIZE, components.get(0).length);
+    }
+
+    /**
+     * builds a chain of <code>SIZE</code> vertices in which every vertex has
+     * an edge to the next one.
+     *
+     * @param closed
+     *            whether the last vertex leads back to the first one or has a
+     *            selfcycle
+     * @return the chain as <code>CompactArena</code>
+     */
+    private static CompactArena buildChain(final boolean closed) {
+        final CompactArena.Builder builder = new CompactArena.Builder();
+        for (int i = 0; i < SIZE; i++) {
+            builder.addVertex("v" + i, i % 3, i % 2 == 0 ? Player.A : Player.B);
+        }
+        for (int i = 1; i < SIZE; i++) {
+            builder.addEdge("v" + (i - 1), "v" + i);
+        }
+        builder.addEdge("v" + (SIZE - 1), closed ? "v0" : "v" + (SIZE - 1));
+        return builder.build();
+    }
+}